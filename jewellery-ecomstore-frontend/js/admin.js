@@ -80,7 +80,7 @@
         if (!productsListEl) return;
         productsListEl.innerHTML = 'Loading products...';
         try {
-            const products = await apiRequest('/admin/products');
+            const products = await apiRequest('/admin/products?all=true');
             renderProductsList(products);
         } catch (err) {
             productsListEl.innerHTML = `<div style="color:red">Error loading products: ${escapeHtml(err.message)}</div>`;
@@ -378,27 +378,35 @@
 
 
     // --- Load and Render Slips (Orders) ---
-    async function loadAndRenderSlips() {
+    // Orders are paged by the backend; slipsPage is the zero-based page currently shown
+    const SLIPS_PAGE_SIZE = 20;
+    let slipsPage = 0;
+
+    async function loadAndRenderSlips(pageNumber = slipsPage) {
         if (!slipsContainerEl) return;
         slipsContainerEl.innerHTML = 'Loading payment slips (orders)...';
         try {
             // Fetch orders from the admin endpoint
-            const orders = await apiRequest('/admin/orders'); // GET /api/admin/orders
-
-            if (!Array.isArray(orders) || orders.length === 0) {
-                slipsContainerEl.innerHTML = '<div class="no-slips">No orders with slips found yet.</div>';
-                return;
+            // GET /api/admin/orders returns a page; newest orders first
+            const page = await apiRequest(`/admin/orders?page=${pageNumber}&size=${SLIPS_PAGE_SIZE}`);
+            const orders = page && Array.isArray(page.content) ? page.content : [];
+            const totalPages = page && Number.isInteger(page.totalPages) ? page.totalPages : 1;
+
+            // Page no longer exists (e.g. orders removed): step back to the last one
+            if (orders.length === 0 && pageNumber > 0 && pageNumber >= totalPages) {
+                return loadAndRenderSlips(Math.max(0, totalPages - 1));
             }
+            slipsPage = pageNumber;
 
             // Filter orders that have slip information (optional, backend might do this)
             const ordersWithSlips = orders.filter(o => o.slipFileName && o.slipFilePath);
 
             if (ordersWithSlips.length === 0) {
                 slipsContainerEl.innerHTML = '<div class="no-slips">No orders with slips found yet.</div>';
-                return;
+            } else {
+                renderSlipsTable(ordersWithSlips);
             }
-
-            renderSlipsTable(ordersWithSlips);
+            renderSlipsPagination(page);
 
         } catch (err) {
             slipsContainerEl.innerHTML = `<div style="color:red">Error loading slips: ${escapeHtml(err.message)}</div>`;
@@ -406,6 +414,23 @@
         }
     }
 
+    // Previous / next controls from the page metadata (number, totalPages, first, last)
+    function renderSlipsPagination(page) {
+        if (!slipsContainerEl || !page || !(page.totalPages > 1)) return;
+        const number = Number.isInteger(page.number) ? page.number : slipsPage;
+
+        const nav = document.createElement('div');
+        nav.className = 'pagination';
+        nav.innerHTML = `
+            <button type="button" class="slips-prev" ${page.first ? 'disabled' : ''}>&laquo; Previous</button>
+            <span>Page ${number + 1} of ${page.totalPages}</span>
+            <button type="button" class="slips-next" ${page.last ? 'disabled' : ''}>Next &raquo;</button>
+        `;
+        nav.querySelector('.slips-prev').addEventListener('click', () => loadAndRenderSlips(number - 1));
+        nav.querySelector('.slips-next').addEventListener('click', () => loadAndRenderSlips(number + 1));
+        slipsContainerEl.appendChild(nav);
+    }
+
     function renderSlipsTable(orders) {
         if (!slipsContainerEl) return;
 
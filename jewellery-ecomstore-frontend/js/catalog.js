@@ -8,6 +8,9 @@ class CatalogManager {
         this.currentPage = 1;
         this.itemsPerPage = 12;
         this.totalPages = 0;
+        this.pageLimit = 24;
+        this.nextCursor = null;
+        this.loadingMore = false;
         this.selectedCategory = null;
         this.searchTerm = '';
 
@@ -59,6 +62,12 @@ class CatalogManager {
                 this.filterProducts();
             });
         }
+
+        // Next page of the listing, fetched only when asked for
+        const loadMoreBtn = document.getElementById('loadMoreBtn');
+        if (loadMoreBtn) {
+            loadMoreBtn.addEventListener('click', () => this.loadMoreProducts());
+        }
     }
 
     // API Helper Methods
@@ -87,16 +96,11 @@ class CatalogManager {
     // --- updated loadProducts() function ---
     async loadProducts() {
         try {
-            const url = `${API_BASE_URL}${this.apiConfig.endpoints.products}`;
-            const res = await fetch(url);
-            if (!res.ok) {
-                console.error('Failed to fetch products from backend', res.status);
-                return this.loadProductsFromStatic(); // optional fallback
-            }
-
-            const data = await res.json();
-            // If backend returns array directly, keep as is
-            this.products = Array.isArray(data) ? data : (data.products || []);
+            // Backend pages the listing; only the first page is fetched up front
+            const page = await this.fetchProductPage(null);
+            if (!page) return this.loadProductsFromStatic(); // optional fallback
+            this.products = page.products;
+            this.nextCursor = page.nextCursor;
             this.filteredProducts = this.products.slice();
             this.totalPages = Math.ceil(this.filteredProducts.length / this.itemsPerPage);
             this.renderProducts();
@@ -105,7 +109,55 @@ class CatalogManager {
             this.loadProductsFromStatic(); // fallback to local JSON if backend down
         }
     }
+
+    // Appends the page after nextCursor (bound to the "Load more" button)
+    async loadMoreProducts() {
+        if (!this.nextCursor || this.loadingMore) return;
+        this.loadingMore = true;
+        this.updateLoadMore();
+        try {
+            const page = await this.fetchProductPage(this.nextCursor);
+            if (page) {
+                this.products.push(...page.products);
+                this.nextCursor = page.nextCursor;
+                this.filteredProducts = this.products.slice();
+                this.totalPages = Math.ceil(this.filteredProducts.length / this.itemsPerPage);
+                this.renderProducts();
+            }
+        } catch (err) {
+            console.error('Error loading more products', err);
+        } finally {
+            this.loadingMore = false;
+            this.updateLoadMore();
+        }
+    }
+
+    // One page of the listing as { products, nextCursor }, or null if the backend refused
+    async fetchProductPage(cursor) {
+        let url = `${API_BASE_URL}${this.apiConfig.endpoints.products}?limit=${this.pageLimit}`;
+        if (cursor) url += `&after=${encodeURIComponent(cursor)}`;
+        const res = await fetch(url);
+        if (!res.ok) {
+            console.error('Failed to fetch products from backend', res.status);
+            return null;
+        }
+        const data = await res.json();
+        // If backend returns array directly, keep as is
+        if (Array.isArray(data)) return { products: data, nextCursor: null };
+        return { products: data.products || [], nextCursor: data.nextCursor || null };
+    }
+
+    updateLoadMore() {
+        const loadMoreBtn = document.getElementById('loadMoreBtn');
+        if (!loadMoreBtn) return;
+        loadMoreBtn.hidden = !this.nextCursor;
+        loadMoreBtn.disabled = this.loadingMore;
+        loadMoreBtn.textContent = this.loadingMore ? 'Loading...' : 'Load more';
+    }
+
     async loadProductsFromStatic() {
+        this.nextCursor = null;
+        this.updateLoadMore();
         try {
             const res = await fetch('data/products.json');
             const data = await res.json();
@@ -135,6 +187,7 @@ class CatalogManager {
     }
 
     renderProducts() {
+        this.updateLoadMore();
         const productGrid = document.querySelector('.product-grid');
         if (!productGrid) return;
 
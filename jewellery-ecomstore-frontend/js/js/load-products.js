@@ -11,7 +11,8 @@ document.addEventListener("DOMContentLoaded", async () => {
         const response = await fetch("http://localhost:8081/api/public/products");
         if (!response.ok) throw new Error("Failed to load products");
 
-        const products = await response.json();
+        const data = await response.json();
+        const products = Array.isArray(data) ? data : (data.products || []);
 
         if (products.length === 0) {
             grid.innerHTML = "<p>No products found.</p>";
@@ -53,11 +53,14 @@ CREATE TABLE products (
     dimensions VARCHAR(100),
     stock_quantity INT NOT NULL DEFAULT 0,
     min_stock_level INT DEFAULT 5,
-    is_active BOOLEAN DEFAULT TRUE,
-    featured BOOLEAN DEFAULT FALSE,
+    is_active BOOLEAN NOT NULL DEFAULT TRUE,
+    featured BOOLEAN NOT NULL DEFAULT FALSE,
     is_gold BOOLEAN DEFAULT FALSE,
     gold_weight_grams DECIMAL(12,4) DEFAULT 0.0000, -- grams of gold contained
-    gold_purity_karat TINYINT NULL               -- e.g., 24, 18, 14 (NULL if not applicable)
+    gold_purity_karat TINYINT NULL,              -- e.g., 24, 18, 14 (NULL if not applicable)
+    current_price DECIMAL(12,2) NULL,            -- selling price maintained by the repricing job
+    priced_at_rate_id INT NULL,                  -- gold_rate_history row current_price was calculated with
+    striped_stock_mirror INT NULL                -- stock_quantity last mirrored from product_stock_stripes (NULL if not striped)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
 -- 5. Product-Categories Junction Table (many-to-many)
@@ -69,6 +72,15 @@ CREATE TABLE product_categories (
     FOREIGN KEY (category_id) REFERENCES categories(category_id) ON DELETE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
+-- 5b. Product Stock Stripes (stock of hot featured products split into sub-buckets)
+CREATE TABLE product_stock_stripes (
+    product_id INT NOT NULL,
+    stripe_no INT NOT NULL,
+    quantity INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (product_id, stripe_no),
+    FOREIGN KEY (product_id) REFERENCES products(product_id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
 -- 6. Product Images Table
 CREATE TABLE product_images (
     image_id INT PRIMARY KEY AUTO_INCREMENT,
@@ -154,12 +166,13 @@ CREATE TABLE cart_items (
     cart_item_id INT PRIMARY KEY AUTO_INCREMENT,
     cart_header_id INT NOT NULL,
     product_id INT NOT NULL,
+    attribute_value_id INT NOT NULL DEFAULT 0,   -- selected variant; 0 = none (not NULL, so unique_cart_product covers those lines too)
     quantity INT NOT NULL DEFAULT 1,
     added_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     FOREIGN KEY (cart_header_id) REFERENCES cart_header(cart_header_id) ON DELETE CASCADE,
     FOREIGN KEY (product_id) REFERENCES products(product_id) ON DELETE CASCADE,
-    UNIQUE KEY unique_cart_product (cart_header_id, product_id)
+    UNIQUE KEY unique_cart_product (cart_header_id, product_id, attribute_value_id)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
 
@@ -252,6 +265,16 @@ CREATE TABLE reviews (
     FOREIGN KEY (product_id) REFERENCES products(product_id) ON DELETE CASCADE ON UPDATE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
+-- 19. Catalog Changes Table (committed catalog writes, polled by every backend node to drop stale cache entries)
+CREATE TABLE catalog_changes (
+    change_id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    kind VARCHAR(16) NOT NULL,                   -- PRODUCT, STOCK, CATEGORY or GOLD_RATE
+    entity_id BIGINT NULL,                       -- product, category or gold_rate_history id
+    node_id VARCHAR(36) NOT NULL,                -- node that made the write
+    changed_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    INDEX idx_catalog_changes_changed_at (changed_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
 
 
 -- ========================================
@@ -271,6 +294,18 @@ CREATE FULLTEXT INDEX IF NOT EXISTS ft_products_name_desc ON products(product_na
 -- filter by status + price ranges quickly (useful for filtered queries)
 CREATE INDEX IF NOT EXISTS idx_products_active_price ON products(is_active, base_price);
 
+-- filter by status + selling price (maintained by the repricing job)
+CREATE INDEX IF NOT EXISTS idx_products_active_current_price ON products(is_active, current_price);
+
+-- keyset paging of the public listing (featured first, then product_id)
+CREATE INDEX IF NOT EXISTS idx_products_active_featured_id ON products(is_active, featured, product_id);
+
+-- keyset paging of the public listing by product_id alone
+CREATE INDEX IF NOT EXISTS idx_products_active_id ON products(is_active, product_id);
+
+-- keyset paging of the admin listing (featured first, active or not)
+CREATE INDEX IF NOT EXISTS idx_products_featured_id ON products(featured, product_id);
+
 -- filters often include gold-specific fields (is_gold + gold_purity + gold_weight)
 CREATE INDEX IF NOT EXISTS idx_products_gold_filters ON products(is_gold, gold_purity_karat, gold_weight_grams);
 
@@ -283,6 +318,8 @@ CREATE INDEX IF NOT EXISTS idx_product_categories_category ON product_categories
 -- product_attribute_values: find products by attribute value quickly
 CREATE INDEX IF NOT EXISTS idx_pav_value ON product_attribute_values(value_id);
 CREATE INDEX IF NOT EXISTS idx_pav_product ON product_attribute_values(product_id);
+-- correlated EXISTS in the product filter: (product_id, value_id) answers it from the index alone
+CREATE INDEX IF NOT EXISTS idx_pav_product_value ON product_attribute_values(product_id, value_id);
 
 -- attribute_values: quickly find all values for an attribute
 CREATE INDEX IF NOT EXISTS idx_attribute_values_attribute ON attribute_values(attribute_id);
@@ -299,6 +336,8 @@ CREATE INDEX IF NOT EXISTS idx_categories_closure_ancestor ON categories_closure
 
 -- speed up cart lookups by session and items by cart
 CREATE INDEX IF NOT EXISTS idx_cart_header_session ON cart_header(session_id);
+-- purge of abandoned carts: range delete on the last write time
+CREATE INDEX IF NOT EXISTS idx_cart_header_updated ON cart_header(updated_at);
 CREATE INDEX IF NOT EXISTS idx_cart_items_cart ON cart_items(cart_header_id);
 CREATE INDEX IF NOT EXISTS idx_cart_items_product ON cart_items(product_id);
 
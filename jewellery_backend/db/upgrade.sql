@@ -0,0 +1,49 @@
+-- Upgrades for a jewelry_ecommerce database created from an older "db connection.sql"
+-- (or by spring.jpa.hibernate.ddl-auto=update, which adds columns but never changes or drops
+-- existing ones). Run the blocks added since your schema was created, in order.
+
+USE jewelry_ecommerce;
+
+-- ========================================
+-- products.featured / products.is_active NOT NULL
+-- (keyset listing compares them directly so idx_products_active_featured_id is used)
+-- ========================================
+UPDATE products SET featured = FALSE WHERE featured IS NULL;
+UPDATE products SET is_active = TRUE WHERE is_active IS NULL;
+ALTER TABLE products
+    MODIFY featured BOOLEAN NOT NULL DEFAULT FALSE,
+    MODIFY is_active BOOLEAN NOT NULL DEFAULT TRUE;
+CREATE INDEX IF NOT EXISTS idx_products_active_id ON products(is_active, product_id);
+CREATE INDEX IF NOT EXISTS idx_products_featured_id ON products(featured, product_id);
+
+-- ========================================
+-- catalog_changes
+-- (shared log of catalog writes; every node polls it to evict its caches and advance the catalog ETag)
+-- ========================================
+CREATE TABLE IF NOT EXISTS catalog_changes (
+    change_id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    kind VARCHAR(16) NOT NULL,
+    entity_id BIGINT NULL,
+    node_id VARCHAR(36) NOT NULL,
+    changed_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    INDEX idx_catalog_changes_changed_at (changed_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- ========================================
+-- cart_items.attribute_value_id NOT NULL DEFAULT 0
+-- (a NULL never conflicts under a unique key, so lines without a variant could be stored twice;
+-- the cart store upserts lines on unique_cart_product and writes 0 for "no variant")
+-- ========================================
+-- keep the newest of any duplicate lines first
+DELETE ci FROM cart_items ci
+JOIN cart_items newer
+  ON newer.cart_header_id = ci.cart_header_id
+ AND newer.product_id = ci.product_id
+ AND newer.attribute_value_id <=> ci.attribute_value_id
+ AND newer.cart_item_id > ci.cart_item_id;
+UPDATE cart_items SET attribute_value_id = 0 WHERE attribute_value_id IS NULL;
+-- a schema made by ddl-auto may name the unique key differently (SHOW INDEX FROM cart_items)
+ALTER TABLE cart_items
+    MODIFY attribute_value_id INT NOT NULL DEFAULT 0,
+    DROP INDEX unique_cart_product,
+    ADD UNIQUE KEY unique_cart_product (cart_header_id, product_id, attribute_value_id);
@@ -10,8 +10,6 @@ import java.util.*;
 @AllArgsConstructor
 @Builder
 public class Cart {
-    public static final String SESSION_ATTRIBUTE = "CART";
-
     @Builder.Default
     private Map<String, CartItem> items = new LinkedHashMap<>();
 
@@ -59,4 +57,21 @@ public class Cart {
     public void clear() {
         items.clear();
     }
+
+    // Independent copy, so a snapshot can be written out while requests keep changing the cart
+    public Cart copy() {
+        Map<String, CartItem> copied = new LinkedHashMap<>();
+        items.forEach((key, it) -> copied.put(key, CartItem.builder()
+                .itemKey(it.getItemKey())
+                .productId(it.getProductId())
+                .attributeValueId(it.getAttributeValueId())
+                .productName(it.getProductName())
+                .unitPrice(it.getUnitPrice())
+                .totalPrice(it.getTotalPrice())
+                .quantity(it.getQuantity())
+                .imageUrl(it.getImageUrl())
+                .imageAlt(it.getImageAlt())
+                .build()));
+        return Cart.builder().items(copied).build();
+    }
 }
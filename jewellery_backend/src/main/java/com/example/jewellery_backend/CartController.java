@@ -2,7 +2,8 @@ package com.example.jewellery_backend;
 
 import com.example.jewellery_backend.dto.*;
 import com.example.jewellery_backend.service.CartService;
-import jakarta.servlet.http.HttpSession;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -16,28 +17,28 @@ public class CartController {
     private final CartService cartService;
 
     @GetMapping
-    public ResponseEntity<CartResponseDto> viewCart(HttpSession session) {
-        return ResponseEntity.ok(cartService.getCart(session));
+    public ResponseEntity<CartResponseDto> viewCart(HttpServletRequest request, HttpServletResponse response) {
+        return ResponseEntity.ok(cartService.getCart(request, response));
     }
 
     @PostMapping("/add")
-    public ResponseEntity<CartResponseDto> addToCart(HttpSession session, @RequestBody AddToCartRequest req) {
-        return ResponseEntity.ok(cartService.addToCart(session, req));
+    public ResponseEntity<CartResponseDto> addToCart(HttpServletRequest request, HttpServletResponse response, @RequestBody AddToCartRequest req) {
+        return ResponseEntity.ok(cartService.addToCart(request, response, req));
     }
 
     @PutMapping("/item")
-    public ResponseEntity<CartResponseDto> updateItem(HttpSession session, @RequestBody UpdateCartItemRequest req) {
-        return ResponseEntity.ok(cartService.updateCartItem(session, req));
+    public ResponseEntity<CartResponseDto> updateItem(HttpServletRequest request, HttpServletResponse response, @RequestBody UpdateCartItemRequest req) {
+        return ResponseEntity.ok(cartService.updateCartItem(request, response, req));
     }
 
     @DeleteMapping("/item/{itemKey}")
-    public ResponseEntity<CartResponseDto> removeItem(HttpSession session, @PathVariable String itemKey) {
-        return ResponseEntity.ok(cartService.removeItem(session, itemKey));
+    public ResponseEntity<CartResponseDto> removeItem(HttpServletRequest request, HttpServletResponse response, @PathVariable String itemKey) {
+        return ResponseEntity.ok(cartService.removeItem(request, response, itemKey));
     }
 
     @DeleteMapping("/clear")
-    public ResponseEntity<CartResponseDto> clearCart(HttpSession session) {
-        return ResponseEntity.ok(cartService.clearCart(session));
+    public ResponseEntity<CartResponseDto> clearCart(HttpServletRequest request, HttpServletResponse response) {
+        return ResponseEntity.ok(cartService.clearCart(request, response));
     }
 }
 
@@ -3,10 +3,14 @@ package com.example.jewellery_backend;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import com.example.jewellery_backend.config.FileStorageProperties;
 
 @SpringBootApplication
 @EnableConfigurationProperties(FileStorageProperties.class)
+@EnableScheduling
+@EnableAsync
 public class JewelleryBackendApplication {
 
 	public static void main(String[] args) {
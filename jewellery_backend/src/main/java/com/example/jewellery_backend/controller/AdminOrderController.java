@@ -4,17 +4,18 @@ import com.example.jewellery_backend.dto.OrderResponseDto;
 import com.example.jewellery_backend.dto.UpdateStatusDto;
 import com.example.jewellery_backend.entity.Order;
 import com.example.jewellery_backend.entity.OrderStatusType;
+import com.example.jewellery_backend.entity.PaymentStatusType;
 import com.example.jewellery_backend.service.OrderService;
-import com.example.jewellery_backend.util.Mapper;
 import jakarta.validation.Valid;
+import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.time.LocalDate;
 import java.util.Locale;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/admin/orders")
@@ -27,40 +28,40 @@ public class AdminOrderController {
         this.orderService = orderService;
     }
 
+    /**
+     * One page of orders, newest first unless sort says otherwise (e.g. "totalAmount,desc").
+     * status and paymentStatus are case-insensitive names; from/to are ISO dates, both inclusive;
+     * email matches by prefix.
+     */
     @GetMapping
-    public ResponseEntity<List<OrderResponseDto>> listOrders(
-            @RequestParam(value = "status", required = false) String statusStr) {
+    public ResponseEntity<Page<OrderResponseDto>> listOrders(
+            @RequestParam(value = "status", required = false) String statusStr,
+            @RequestParam(value = "paymentStatus", required = false) String paymentStatusStr,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "email", required = false) String email,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "20") int size,
+            @RequestParam(value = "sort", required = false) String sort) {
 
-        // Fetch all order DTOs from the service
-        List<OrderResponseDto> dtos = orderService.listAllOrders();
-
-        // If no status filter, return all
-        if (statusStr == null || statusStr.isBlank()) {
-            return ResponseEntity.ok(dtos);
-        }
-
-        // Parse enum in a case-insensitive way
-        final OrderStatusType.OrderStatus statusEnum;
+        // Enum constants are lowercase, like the status rows; invalid names -> 400 Bad Request
+        final OrderStatusType.OrderStatus status;
+        final PaymentStatusType.PaymentStatus paymentStatus;
         try {
-            statusEnum = OrderStatusType.OrderStatus.valueOf(statusStr.trim().toUpperCase(Locale.ROOT));
+            status = statusStr == null || statusStr.isBlank() ? null
+                    : OrderStatusType.OrderStatus.valueOf(statusStr.trim().toLowerCase(Locale.ROOT));
+            paymentStatus = paymentStatusStr == null || paymentStatusStr.isBlank() ? null
+                    : PaymentStatusType.PaymentStatus.valueOf(paymentStatusStr.trim().toLowerCase(Locale.ROOT));
         } catch (IllegalArgumentException ex) {
-            // Invalid status supplied -> 400 Bad Request
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
 
-        // Filter by status
-        List<OrderResponseDto> filtered = dtos.stream()
-                .filter(o -> o.getOrderStatusType() != null
-                        && statusEnum.equals(o.getOrderStatusType().getOrderStatusName()))
-                .collect(Collectors.toList());
-
-        return ResponseEntity.ok(filtered);
+        return ResponseEntity.ok(orderService.listOrders(status, paymentStatus, from, to, email, page, size, sort));
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<OrderResponseDto> getOrder(@PathVariable Long id) {
-        Order order = orderService.getOrder(id);
-        return ResponseEntity.ok(Mapper.toOrderResponseDto(order));
+        return ResponseEntity.ok(orderService.getOrderResponse(id));
     }
 
     @PutMapping("/{id}/status")
@@ -74,6 +75,6 @@ public class AdminOrderController {
                 dto.getPaymentStatus()
         );
 
-        return ResponseEntity.ok(Mapper.toOrderResponseDto(updated));
+        return ResponseEntity.ok(orderService.getOrderResponse(updated.getOrderId()));
     }
 }
\ No newline at end of file
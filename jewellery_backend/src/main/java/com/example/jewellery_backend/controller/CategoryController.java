@@ -1,10 +1,13 @@
 package com.example.jewellery_backend.controller;
 
 import com.example.jewellery_backend.dto.CategoryDto;
+import com.example.jewellery_backend.service.CatalogVersion;
 import com.example.jewellery_backend.service.CategoryService;
+import com.example.jewellery_backend.util.ConditionalGet;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.net.URI;
 import java.util.List;
@@ -14,15 +17,16 @@ import java.util.List;
 public class CategoryController {
 
     private final CategoryService categoryService;
+    private final CatalogVersion catalogVersion;
 
-    public CategoryController(CategoryService categoryService) {
+    public CategoryController(CategoryService categoryService, CatalogVersion catalogVersion) {
         this.categoryService = categoryService;
+        this.catalogVersion = catalogVersion;
     }
 
     @GetMapping
-    public ResponseEntity<List<CategoryDto>> getAllCategories() {
-        List<CategoryDto> categories = categoryService.getAllCategories();
-        return ResponseEntity.ok(categories);
+    public ResponseEntity<List<CategoryDto>> getAllCategories(WebRequest request) {
+        return ConditionalGet.ifNoneMatch(request, catalogVersion.etag(), categoryService::getAllCategories);
     }
 
     @PostMapping
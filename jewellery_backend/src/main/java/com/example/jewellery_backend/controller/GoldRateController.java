@@ -1,8 +1,12 @@
 package com.example.jewellery_backend.controller;
 
 import com.example.jewellery_backend.entity.GoldRate;
+import com.example.jewellery_backend.service.CatalogVersion;
 import com.example.jewellery_backend.service.GoldRateService;
+import com.example.jewellery_backend.util.ConditionalGet;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -11,9 +15,11 @@ import java.util.List;
 public class GoldRateController {
 
     private final GoldRateService goldRateService;
+    private final CatalogVersion catalogVersion;
 
-    public GoldRateController(GoldRateService goldRateService) {
+    public GoldRateController(GoldRateService goldRateService, CatalogVersion catalogVersion) {
         this.goldRateService = goldRateService;
+        this.catalogVersion = catalogVersion;
     }
 
     @GetMapping
@@ -22,9 +28,9 @@ public class GoldRateController {
     }
 
     @GetMapping("/latest")
-    public GoldRate getLatestGoldRate() {
-        return goldRateService.getLatestGoldRate()
-                .orElseThrow(() -> new RuntimeException("No gold rate found"));
+    public ResponseEntity<GoldRate> getLatestGoldRate(WebRequest request) {
+        return ConditionalGet.ifNoneMatch(request, catalogVersion.etag(), () -> goldRateService.getLatestGoldRate()
+                .orElseThrow(() -> new RuntimeException("No gold rate found")));
     }
 
     @PostMapping
@@ -3,8 +3,9 @@ import com.example.jewellery_backend.dto.OrderRequestDto;
 import com.example.jewellery_backend.dto.OrderResponseDto;
 import com.example.jewellery_backend.entity.Order;
 import com.example.jewellery_backend.service.OrderService;
-import com.example.jewellery_backend.util.Mapper;
-import jakarta.servlet.http.HttpSession;
+import com.example.jewellery_backend.util.CartCookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -22,15 +23,16 @@ public class OrderController {
         this.orderService = orderService;
     }
 
-    // Combined endpoint for creating an order from session cart and uploading the slip
+    // Combined endpoint for creating an order from the shopper's cart and uploading the slip
     @PostMapping(consumes = { MediaType.MULTIPART_FORM_DATA_VALUE })
     public ResponseEntity<OrderResponseDto> createOrderAndUploadSlip(
             @RequestPart("orderData") @Valid OrderRequestDto orderRequestDto, // User details as JSON part
             @RequestPart(value = "slipFile", required = true) MultipartFile slipFile, // Slip file part
-            HttpSession session // Inject HttpSession
+            HttpServletRequest request,
+            HttpServletResponse response
     ) {
         // Calls the service method responsible for handling cart items, stock, slip, etc.
-        Order createdOrder = orderService.createOrderFromSessionCart(orderRequestDto, slipFile, session);
-        return ResponseEntity.status(HttpStatus.CREATED).body(Mapper.toOrderResponseDto(createdOrder));
+        Order createdOrder = orderService.createOrderFromCart(orderRequestDto, slipFile, CartCookie.resolve(request, response));
+        return ResponseEntity.status(HttpStatus.CREATED).body(orderService.toResponseDto(createdOrder));
     }
 }
\ No newline at end of file
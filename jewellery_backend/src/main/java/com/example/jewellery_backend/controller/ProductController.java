@@ -2,6 +2,7 @@ package com.example.jewellery_backend.controller;
 
 import com.example.jewellery_backend.dto.CreateUpdateProductRequest;
 import com.example.jewellery_backend.dto.ProductDto;
+import com.example.jewellery_backend.dto.ProductPageDto;
 import com.example.jewellery_backend.service.ProductService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -20,8 +21,18 @@ public class ProductController {
 
     private final ProductService productService;
 
-    // All roles can view products
+    // All roles can view products, one keyset page at a time
     @GetMapping
+    public ResponseEntity<ProductPageDto> getProductPage(
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", defaultValue = "24") int limit,
+            @RequestParam(value = "sort", defaultValue = "id") String sort) {
+        ProductPageDto page = productService.getProductPage(after, limit, PublicController.isFeaturedFirst(sort), false);
+        return ResponseEntity.ok(page);
+    }
+
+    // Admin tooling only: the whole catalog in one response
+    @GetMapping(params = "all=true")
     public ResponseEntity<List<ProductDto>> getAllProducts() {
         List<ProductDto> list = productService.getAllProducts();
         return ResponseEntity.ok(list);
@@ -1,11 +1,20 @@
 package com.example.jewellery_backend.controller;
 
 import com.example.jewellery_backend.dto.CategoryDto;
+import com.example.jewellery_backend.dto.CategoryTreeNodeDto;
 import com.example.jewellery_backend.dto.ProductDto;
+import com.example.jewellery_backend.dto.ProductPageDto;
+import com.example.jewellery_backend.dto.ProductSummary;
+import com.example.jewellery_backend.dto.ProductSummaryPageDto;
+import com.example.jewellery_backend.service.CatalogVersion;
+import com.example.jewellery_backend.service.CategoryMenu;
 import com.example.jewellery_backend.service.CategoryService;
 import com.example.jewellery_backend.service.ProductService;
+import com.example.jewellery_backend.util.ConditionalGet;
+import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -15,35 +24,101 @@ public class PublicController {
 
     private final CategoryService categoryService;
     private final ProductService productService;
+    private final CatalogVersion catalogVersion;
+    private final CategoryMenu categoryMenu;
 
     public PublicController(CategoryService categoryService,
-                            ProductService productService) {
+                            ProductService productService,
+                            CatalogVersion catalogVersion,
+                            CategoryMenu categoryMenu) {
         this.categoryService = categoryService;
         this.productService = productService;
+        this.catalogVersion = catalogVersion;
+        this.categoryMenu = categoryMenu;
     }
 
+    // Every endpoint here is tagged with the catalog version; a matching If-None-Match gets 304 before any lookup
+
     @GetMapping("/categories")
-    public ResponseEntity<List<CategoryDto>> allCategories() {
-        return ResponseEntity.ok(categoryService.getAllCategories());
+    public ResponseEntity<List<CategoryDto>> allCategories(WebRequest request) {
+        return ConditionalGet.ifNoneMatch(request, catalogVersion.etag(), categoryService::getAllCategories);
+    }
+
+    /**
+     * Full menu tree of active categories with active product counts, served from a prebuilt snapshot.
+     * Tagged with the snapshot's own version, since it is rebuilt a moment after the write commits.
+     */
+    @GetMapping("/categories/tree")
+    public ResponseEntity<List<CategoryTreeNodeDto>> categoryTree(WebRequest request) {
+        CategoryMenu.Snapshot menu = categoryMenu.current();
+        return ConditionalGet.ifNoneMatch(request, menu.getEtag(), menu::getRoots);
     }
 
     @GetMapping("/categories/{id}")
-    public ResponseEntity<CategoryDto> getCategory(@PathVariable Long id) {
-        return ResponseEntity.ok(categoryService.getCategoryById(id));
+    public ResponseEntity<CategoryDto> getCategory(@PathVariable Long id, WebRequest request) {
+        return ConditionalGet.ifNoneMatch(request, catalogVersion.etag(), () -> categoryService.getCategoryById(id));
+    }
+
+    @GetMapping("/categories/{id}/breadcrumb")
+    public ResponseEntity<List<CategoryDto>> getBreadcrumb(@PathVariable Long id, WebRequest request) {
+        return ConditionalGet.ifNoneMatch(request, catalogVersion.etag(), () -> categoryService.getBreadcrumb(id));
+    }
+
+    @GetMapping("/categories/{id}/children")
+    public ResponseEntity<List<CategoryDto>> getChildren(@PathVariable Long id, WebRequest request) {
+        return ConditionalGet.ifNoneMatch(request, catalogVersion.etag(), () -> categoryService.getChildren(id));
     }
 
+    /**
+     * Keyset-paged listing of active products.
+     * sort=id orders by productId, sort=featured puts featured products first.
+     */
     @GetMapping("/products")
-    public ResponseEntity<List<ProductDto>> allProducts() {
-        return ResponseEntity.ok(productService.getAllProducts());
+    public ResponseEntity<ProductPageDto> allProducts(
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", defaultValue = "24") int limit,
+            @RequestParam(value = "sort", defaultValue = "id") String sort,
+            WebRequest request) {
+        boolean featuredFirst = isFeaturedFirst(sort);
+        return ConditionalGet.ifNoneMatch(request, catalogVersion.etag(),
+                () -> productService.getProductPage(after, limit, featuredFirst, true));
+    }
+
+    /**
+     * Same paging as /products, but only id, name, primary image, price and stock per product.
+     */
+    @GetMapping("/products/summary")
+    public ResponseEntity<ProductSummaryPageDto> productSummaries(
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", defaultValue = "24") int limit,
+            @RequestParam(value = "sort", defaultValue = "id") String sort,
+            WebRequest request) {
+        boolean featuredFirst = isFeaturedFirst(sort);
+        return ConditionalGet.ifNoneMatch(request, catalogVersion.etag(),
+                () -> productService.getProductSummaryPage(after, limit, featuredFirst));
     }
+
     @GetMapping("/products/{id}")
-    public ResponseEntity<ProductDto> getProductById(@PathVariable Long id) {
-        return ResponseEntity.ok(productService.getProductById(id));
+    public ResponseEntity<ProductDto> getProductById(@PathVariable Long id, WebRequest request) {
+        return ConditionalGet.ifNoneMatch(request, catalogVersion.etag(), () -> productService.getProductById(id));
     }
 
+    /**
+     * One page of active products in the category and all its subcategories, newest first.
+     */
     @GetMapping("/categories/{id}/products")
-    public ResponseEntity<List<ProductDto>> getProductsByCategory(@PathVariable Long id) {
-        List<ProductDto> products = productService.getProductsByCategoryId(id);
-        return ResponseEntity.ok(products);
+    public ResponseEntity<Page<ProductSummary>> getProductsByCategory(
+            @PathVariable Long id,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "24") int size,
+            WebRequest request) {
+        return ConditionalGet.ifNoneMatch(request, catalogVersion.etag(),
+                () -> productService.getProductsByCategoryId(id, page, size));
+    }
+
+    static boolean isFeaturedFirst(String sort) {
+        if ("featured".equalsIgnoreCase(sort)) return true;
+        if ("id".equalsIgnoreCase(sort)) return false;
+        throw new IllegalArgumentException("Unsupported sort: " + sort + " (use 'id' or 'featured')");
     }
 }
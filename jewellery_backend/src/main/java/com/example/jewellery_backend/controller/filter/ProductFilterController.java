@@ -1,7 +1,7 @@
 package com.example.jewellery_backend.controller.filter;
 
 import com.example.jewellery_backend.dto.Filter.FilterRequest;
-import com.example.jewellery_backend.entity.Product;
+import com.example.jewellery_backend.dto.ProductSummary;
 import com.example.jewellery_backend.service.FilterService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -16,8 +16,8 @@ public class ProductFilterController {
     private FilterService filterService; // ⚠️ inject instance, not call static method
 
     @PostMapping("/filter")
-    public ResponseEntity<Page<Product>> filterProducts(@RequestBody FilterRequest filterRequest) {
-        Page<Product> page = filterService.filterProducts(filterRequest);
+    public ResponseEntity<Page<ProductSummary>> filterProducts(@RequestBody FilterRequest filterRequest) {
+        Page<ProductSummary> page = filterService.filterProducts(filterRequest);
         return ResponseEntity.ok(page);
     }
 }
@@ -17,6 +17,8 @@ public class CategoryDto {
     private Boolean isActive;
 
     // For hierarchical structure (optional)
+    private Long parentCategoryId; // null = top-level category (on update: keep the current parent)
+    private Boolean moveToRoot;     // update only: true = make it a top-level category
     private CategoryDto parentId;
     private List<CategoryDto> children;
     private String imageUrl;
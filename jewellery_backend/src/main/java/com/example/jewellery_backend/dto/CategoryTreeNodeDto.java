@@ -0,0 +1,20 @@
+package com.example.jewellery_backend.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * One category of the storefront menu tree, with its active subcategories nested inside.
+ * productCount is the number of distinct active products in the category or anywhere below it.
+ */
+@Value
+@Builder
+public class CategoryTreeNodeDto {
+    Long categoryId;
+    String categoryName;
+    String slug;
+    long productCount;
+    List<CategoryTreeNodeDto> children;
+}
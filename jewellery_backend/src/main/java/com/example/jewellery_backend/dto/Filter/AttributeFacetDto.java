@@ -0,0 +1,18 @@
+package com.example.jewellery_backend.dto.Filter;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AttributeFacetDto {
+    private Long attributeId;
+    private String attributeName;
+    private List<FacetValueDto> values;
+}
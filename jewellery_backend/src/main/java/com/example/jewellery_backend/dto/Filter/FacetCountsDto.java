@@ -0,0 +1,21 @@
+package com.example.jewellery_backend.dto.Filter;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Facet counts for a filter request. Each count applies every other active filter
+ * but not the facet's own one, so selecting another value of the same facet widens the result.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FacetCountsDto {
+    private List<FacetValueDto> categories;
+    private List<AttributeFacetDto> attributes;
+}
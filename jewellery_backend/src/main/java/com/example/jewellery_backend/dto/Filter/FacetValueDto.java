@@ -0,0 +1,19 @@
+package com.example.jewellery_backend.dto.Filter;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One facet value (a category or an attribute value) and how many products would match if it were selected.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FacetValueDto {
+    private Long id;
+    private String name;
+    private long count;
+}
@@ -0,0 +1,23 @@
+package com.example.jewellery_backend.dto.Filter;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * A page of filter results that also carries the facet counts; serialized as the page plus a "facets" field.
+ */
+public class FacetedPage<T> extends PageImpl<T> {
+
+    private final FacetCountsDto facets;
+
+    public FacetedPage(List<T> content, Pageable pageable, long total, FacetCountsDto facets) {
+        super(content, pageable, total);
+        this.facets = facets;
+    }
+
+    public FacetCountsDto getFacets() {
+        return facets;
+    }
+}
@@ -16,4 +16,6 @@ public class FilterRequest {
     private Map<String, List<String>> attributes;
     private Integer page = 0;
     private Integer size = 20;
+    // also return per-category and per-attribute-value match counts
+    private Boolean facets = false;
 }
@@ -1,6 +1,7 @@
 package com.example.jewellery_backend.dto;
 
 import com.example.jewellery_backend.entity.OrderStatusType;
+import com.example.jewellery_backend.entity.PaymentStatusType;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -21,6 +22,7 @@ public class OrderResponseDto {
     private String customerEmail;
     private BigDecimal totalAmount;
     private OrderStatusType orderStatusType;
+    private PaymentStatusType paymentStatus;
     private LocalDateTime createdAt;
 
     private List<OrderItemResponseDto> items; // must have getter/setter for Mapper
@@ -0,0 +1,21 @@
+package com.example.jewellery_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One keyset page of products.
+ * Send nextCursor back as the "after" parameter to get the following page; it is null on the last page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductPageDto {
+    private List<ProductDto> products;
+    private String nextCursor;
+}
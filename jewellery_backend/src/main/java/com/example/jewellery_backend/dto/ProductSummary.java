@@ -0,0 +1,26 @@
+package com.example.jewellery_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Slim product row for list views: no description, categories or attribute values,
+ * and only the primary image. Built directly by a JPQL constructor query in ProductRepository.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductSummary {
+    private Long productId;
+    private String productName;
+    private String primaryImageUrl;
+    // Selling price at the current gold rate
+    private BigDecimal price;
+    private Integer stockQuantity;
+    private Boolean featured;
+}
@@ -0,0 +1,20 @@
+package com.example.jewellery_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One keyset page of product summaries; paged exactly like {@link ProductPageDto}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductSummaryPageDto {
+    private List<ProductSummary> products;
+    private String nextCursor;
+}
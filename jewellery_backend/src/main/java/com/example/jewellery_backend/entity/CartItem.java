@@ -13,7 +13,8 @@ import lombok.*;
  */
 @Entity
 @Table(name = "cart_items",
-        uniqueConstraints = {@UniqueConstraint(columnNames = {"cart_header_id", "product_id"})}
+        uniqueConstraints = {@UniqueConstraint(name = "unique_cart_product",
+                columnNames = {"cart_header_id", "product_id", "attribute_value_id"})}
 )
 @Data
 @NoArgsConstructor
@@ -38,6 +39,11 @@ public class CartItem {
     @EqualsAndHashCode.Exclude
     private Product product;
 
+    // Selected variant; 0 when the product was added without one (not NULL, so the unique key covers those lines too)
+    @Column(name = "attribute_value_id", nullable = false)
+    @Builder.Default
+    private Long attributeValueId = 0L;
+
     @Column(name = "quantity", nullable = false)
     @Builder.Default
     private Integer quantity = 1;
@@ -0,0 +1,42 @@
+package com.example.jewellery_backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One committed catalog write, logged so every backend node can drop what it cached about it
+ * (see CatalogChangeFeed). Written and read with plain SQL; mapped so the schema is managed with the rest.
+ */
+@Entity
+@Table(name = "catalog_changes", indexes = {
+        @Index(name = "idx_catalog_changes_changed_at", columnList = "changed_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CatalogChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "change_id")
+    private Long changeId;
+
+    // PRODUCT, STOCK, CATEGORY or GOLD_RATE
+    @Column(name = "kind", nullable = false, length = 16)
+    private String kind;
+
+    // product, category or gold_rate_history id
+    @Column(name = "entity_id")
+    private Long entityId;
+
+    // node that made the write; it has already applied it
+    @Column(name = "node_id", nullable = false, length = 36)
+    private String nodeId;
+
+    @Column(name = "changed_at", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "TIMESTAMP(3) DEFAULT CURRENT_TIMESTAMP(3)")
+    private LocalDateTime changedAt;
+}
@@ -54,11 +54,11 @@ public class Product {
     @Builder.Default
     private Integer minStockLevel = 5;
 
-    @Column(name = "is_active")
+    @Column(name = "is_active", nullable = false)
     @Builder.Default
     private Boolean isActive = true;
 
-    @Column(name = "featured")
+    @Column(name = "featured", nullable = false)
     @Builder.Default
     private Boolean featured = false;
 
@@ -72,6 +72,18 @@ public class Product {
     @Column(name = "gold_purity_karat")
     private Integer goldPurityKarat;
 
+    // Selling price kept up to date by ProductRepricingJob (null until first priced)
+    @Column(name = "current_price", precision = 12, scale = 2)
+    private BigDecimal currentPrice;
+
+    // gold_rate_history row the current_price was calculated with
+    @Column(name = "priced_at_rate_id")
+    private Long pricedAtRateId;
+
+    // stock_quantity as last mirrored from the stock stripes (null while not striped); written by StripedStockLedger only
+    @Column(name = "striped_stock_mirror", insertable = false, updatable = false)
+    private Integer stripedStockMirror;
+
     // product_images (1:N)
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
     @ToString.Exclude
@@ -0,0 +1,24 @@
+package com.example.jewellery_backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * One sub-bucket of a hot product's stock. While a product is striped, its available stock
+ * is the sum of its stripes and products.stock_quantity is a mirror of that sum
+ * (see StripedStockLedger). Written with plain SQL; mapped so the schema is managed with the rest.
+ */
+@Entity
+@Table(name = "product_stock_stripes")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductStockStripe {
+
+    @EmbeddedId
+    private ProductStockStripeId id;
+
+    @Column(name = "quantity", nullable = false)
+    private Integer quantity;
+}
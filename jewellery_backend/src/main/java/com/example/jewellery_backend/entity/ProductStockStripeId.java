@@ -0,0 +1,23 @@
+package com.example.jewellery_backend.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.*;
+
+import java.io.Serializable;
+
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductStockStripeId implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "stripe_no", nullable = false)
+    private Integer stripeNo;
+}
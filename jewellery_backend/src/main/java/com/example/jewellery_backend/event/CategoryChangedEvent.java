@@ -0,0 +1,11 @@
+package com.example.jewellery_backend.event;
+
+import lombok.Value;
+
+/**
+ * Published when a category row is created, updated or deleted.
+ */
+@Value
+public class CategoryChangedEvent {
+    Long categoryId;
+}
@@ -0,0 +1,14 @@
+package com.example.jewellery_backend.event;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+/**
+ * Published by GoldRateSnapshot when a different gold rate row becomes current.
+ */
+@Value
+public class GoldRateChangedEvent {
+    Long historyId;
+    BigDecimal rate;
+}
@@ -0,0 +1,12 @@
+package com.example.jewellery_backend.event;
+
+import lombok.Value;
+
+/**
+ * Published when a product row is created, updated or deleted.
+ * Listeners that cache product data act on it after the transaction commits.
+ */
+@Value
+public class ProductChangedEvent {
+    Long productId;
+}
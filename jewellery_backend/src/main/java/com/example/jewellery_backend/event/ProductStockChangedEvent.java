@@ -0,0 +1,15 @@
+package com.example.jewellery_backend.event;
+
+import lombok.Value;
+
+import java.util.Set;
+
+/**
+ * Published when checkout, cancellation or the stripe rebalance changed stock_quantity of the
+ * given products and nothing else. Only listeners that show stock act on it; one event covers
+ * all products of the transaction.
+ */
+@Value
+public class ProductStockChangedEvent {
+    Set<Long> productIds;
+}
@@ -0,0 +1,12 @@
+package com.example.jewellery_backend.event;
+
+import lombok.Value;
+
+/**
+ * Published by ProductRepricingJob after it has rewritten products.current_price in bulk.
+ */
+@Value
+public class ProductsRepricedEvent {
+    Long rateId;
+    int updated;
+}
@@ -1,10 +1,45 @@
 package com.example.jewellery_backend.exception;
 
+import lombok.Value;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
 /**
  * Thrown when requested quantity exceeds product stock.
  */
 public class InsufficientStockException extends RuntimeException {
-    public InsufficientStockException() { super(); }
-    public InsufficientStockException(String message) { super(message); }
-    public InsufficientStockException(String message, Throwable cause) { super(message, cause); }
+
+    // Every line that could not be covered, when known
+    private final List<Shortage> shortages;
+
+    public InsufficientStockException() { super(); this.shortages = Collections.emptyList(); }
+    public InsufficientStockException(String message) { super(message); this.shortages = Collections.emptyList(); }
+    public InsufficientStockException(String message, Throwable cause) { super(message, cause); this.shortages = Collections.emptyList(); }
+
+    public InsufficientStockException(List<Shortage> shortages) {
+        super(shortages.stream().map(Shortage::describe).collect(Collectors.joining("; ")));
+        this.shortages = List.copyOf(shortages);
+    }
+
+    public List<Shortage> getShortages() {
+        return shortages;
+    }
+
+    /**
+     * One order line the stock could not cover.
+     */
+    @Value
+    public static class Shortage {
+        Long productId;
+        String productName;
+        int requested;
+        int available;
+
+        String describe() {
+            return "Insufficient stock for product id " + productId + " (" + productName + "): requested "
+                    + requested + ", available " + available;
+        }
+    }
 }
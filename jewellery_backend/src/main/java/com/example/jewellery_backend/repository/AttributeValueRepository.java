@@ -2,8 +2,15 @@ package com.example.jewellery_backend.repository;
 
 import com.example.jewellery_backend.entity.AttributeValue;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface AttributeValueRepository extends JpaRepository<AttributeValue, Long> {
+
+    // [valueId, attributeId, attributeValue] for every value, without loading entities
+    @Query("SELECT av.valueId, av.attribute.attributeId, av.attributeValue FROM AttributeValue av")
+    List<Object[]> findAllValueRows();
 }
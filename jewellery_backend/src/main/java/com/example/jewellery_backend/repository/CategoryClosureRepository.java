@@ -3,6 +3,7 @@ package com.example.jewellery_backend.repository;
 import com.example.jewellery_backend.entity.CategoryClosure;
 import com.example.jewellery_backend.entity.CategoryClosureId;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -17,6 +18,46 @@ public interface CategoryClosureRepository extends JpaRepository<CategoryClosure
     @Query("SELECT cc.descendant.categoryId FROM CategoryClosure cc WHERE cc.ancestor.categoryId = :ancestorId")
     Set<Long> findDescendantIdsByAncestorId(@Param("ancestorId") Long ancestorId);
 
+    // [ancestorId, descendantId, depth] for every row, straight from the columns
+    @Query("SELECT cc.id.ancestorId, cc.id.descendantId, cc.depth FROM CategoryClosure cc")
+    List<Object[]> findAllPairs();
+
+    // ---- Closure maintenance: set-based statements, a handful per write whatever the subtree size
+
+    // Self row plus one row per ancestor of the parent; a null parent inserts only the self row
+    @Modifying
+    @Query(value = "INSERT INTO categories_closure (ancestor_id, descendant_id, depth) " +
+            "SELECT :categoryId, :categoryId, 0 " +
+            "UNION ALL " +
+            "SELECT cc.ancestor_id, :categoryId, cc.depth + 1 FROM categories_closure cc " +
+            "WHERE cc.descendant_id = :parentId", nativeQuery = true)
+    int insertNode(@Param("categoryId") Long categoryId, @Param("parentId") Long parentId);
+
+    // Cuts the subtree loose: removes every path from outside the subtree into it
+    @Modifying
+    @Query(value = "DELETE link FROM categories_closure link " +
+            "JOIN categories_closure sub ON link.descendant_id = sub.descendant_id " +
+            "LEFT JOIN categories_closure inner_path " +
+            "  ON inner_path.ancestor_id = sub.ancestor_id AND inner_path.descendant_id = link.ancestor_id " +
+            "WHERE sub.ancestor_id = :categoryId AND inner_path.ancestor_id IS NULL", nativeQuery = true)
+    int detachSubtree(@Param("categoryId") Long categoryId);
+
+    // Hangs a detached subtree under the new parent: every ancestor of the parent x every subtree node
+    @Modifying
+    @Query(value = "INSERT INTO categories_closure (ancestor_id, descendant_id, depth) " +
+            "SELECT supertree.ancestor_id, subtree.descendant_id, supertree.depth + subtree.depth + 1 " +
+            "FROM categories_closure supertree " +
+            "CROSS JOIN categories_closure subtree " +
+            "WHERE supertree.descendant_id = :parentId AND subtree.ancestor_id = :categoryId", nativeQuery = true)
+    int attachSubtree(@Param("categoryId") Long categoryId, @Param("parentId") Long parentId);
+
+    // Every path that ends inside the subtree, including its internal paths
+    @Modifying
+    @Query(value = "DELETE link FROM categories_closure link " +
+            "JOIN categories_closure sub ON link.descendant_id = sub.descendant_id " +
+            "WHERE sub.ancestor_id = :categoryId", nativeQuery = true)
+    int deleteSubtree(@Param("categoryId") Long categoryId);
+
     // Find direct children (depth = 1) - useful for tree structures
     List<CategoryClosure> findByAncestorCategoryIdAndDepth(Long ancestorId, Integer depth);
 
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface FilterRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
-    // No extra methods required; specifications will be used for filtering
+public interface FilterRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product>,
+        FilterRepositoryCustom {
+    // Specifications are used for filtering; findIds comes from FilterRepositoryImpl
 }
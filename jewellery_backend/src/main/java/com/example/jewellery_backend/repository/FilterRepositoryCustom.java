@@ -0,0 +1,17 @@
+package com.example.jewellery_backend.repository;
+
+import com.example.jewellery_backend.entity.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+public interface FilterRepositoryCustom {
+
+    /**
+     * One page of ids of the products matching the specification, plus the total count.
+     * Only product ids are selected, so no entity or lazy collection is loaded.
+     * The specification must not join to-many associations (use EXISTS subqueries),
+     * since ids and count are read without DISTINCT.
+     */
+    Page<Long> findIds(Specification<Product> spec, Pageable pageable);
+}
@@ -0,0 +1,70 @@
+package com.example.jewellery_backend.repository;
+
+import com.example.jewellery_backend.entity.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Criteria implementation of {@link FilterRepositoryCustom}; picked up by Spring Data by its "Impl" suffix.
+ */
+public class FilterRepositoryImpl implements FilterRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<Long> findIds(Specification<Product> spec, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<Long> idQuery = cb.createQuery(Long.class);
+        Root<Product> root = idQuery.from(Product.class);
+        idQuery.select(root.get("productId"));
+        Predicate predicate = spec.toPredicate(root, idQuery, cb);
+        if (predicate != null) idQuery.where(predicate);
+        idQuery.orderBy(toOrders(pageable.getSort(), root, cb));
+
+        List<Long> ids = entityManager.createQuery(idQuery)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+
+        // Skip the count when the first page already shows the end of the result
+        if (pageable.getOffset() == 0 && ids.size() < pageable.getPageSize()) {
+            return new PageImpl<>(ids, pageable, ids.size());
+        }
+
+        CriteriaQuery<Long> countQuery = cb.createQuery(Long.class);
+        Root<Product> countRoot = countQuery.from(Product.class);
+        countQuery.select(cb.count(countRoot));
+        Predicate countPredicate = spec.toPredicate(countRoot, countQuery, cb);
+        if (countPredicate != null) countQuery.where(countPredicate);
+        Long total = entityManager.createQuery(countQuery).getSingleResult();
+
+        return new PageImpl<>(ids, pageable, total != null ? total : 0L);
+    }
+
+    private static List<Order> toOrders(Sort sort, Root<Product> root, CriteriaBuilder cb) {
+        if (sort.isUnsorted()) return Collections.emptyList();
+        List<Order> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            orders.add(order.isAscending()
+                    ? cb.asc(root.get(order.getProperty()))
+                    : cb.desc(root.get(order.getProperty())));
+        }
+        return orders;
+    }
+}
@@ -2,11 +2,20 @@ package com.example.jewellery_backend.repository;
 
 import com.example.jewellery_backend.entity.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     List<OrderItem> findByOrderOrderId(Long orderId);
+
+    // [orderId, orderItemId, productId, productName, unitPrice, quantity, totalPrice] of several orders, in one query
+    @Query("SELECT oi.order.orderId, oi.orderItemId, p.productId, p.productName, oi.unitPrice, oi.quantity, oi.totalPrice " +
+           "FROM OrderItem oi LEFT JOIN oi.product p " +
+           "WHERE oi.order.orderId IN :orderIds ORDER BY oi.orderItemId")
+    List<Object[]> findItemRowsByOrderIds(@Param("orderIds") Collection<Long> orderIds);
 }
@@ -2,10 +2,24 @@ package com.example.jewellery_backend.repository;
 
 import com.example.jewellery_backend.entity.ProductAttributeValue;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 @Transactional
 @Repository
 public interface ProductAttributeValueRepository extends JpaRepository<ProductAttributeValue, Long> {
+
+    // [productId, valueId, attributeId] for every product attribute value
+    @Query("SELECT pav.product.productId, av.valueId, av.attribute.attributeId " +
+            "FROM ProductAttributeValue pav JOIN pav.attributeValue av")
+    List<Object[]> findAllLinkIds();
+
+    // [valueId, attributeId] for one product
+    @Query("SELECT av.valueId, av.attribute.attributeId " +
+            "FROM ProductAttributeValue pav JOIN pav.attributeValue av WHERE pav.product.productId = :productId")
+    List<Object[]> findValueIdsByProductId(@Param("productId") Long productId);
 }
@@ -3,6 +3,8 @@ package com.example.jewellery_backend.repository;
 import com.example.jewellery_backend.entity.ProductCategory;
 import com.example.jewellery_backend.entity.ProductCategoryId;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.Set;
@@ -14,4 +16,19 @@ public interface ProductCategoryRepository extends JpaRepository<ProductCategory
     List<ProductCategory> findByIdCategoryId(Long categoryId);
     List<ProductCategory> findByIdProductId(Long productId);
     List<ProductCategory> findByIdCategoryIdIn(Set<Long> categoryIds);
+
+    // [productId, categoryId] for every link, straight from the key columns
+    @Query("SELECT pc.id.productId, pc.id.categoryId FROM ProductCategory pc")
+    List<Object[]> findAllLinkIds();
+
+    // [categoryId, distinct active products in it or below it] for every category that has any
+    @Query("SELECT cc.id.ancestorId, COUNT(DISTINCT p.productId) " +
+            "FROM CategoryClosure cc, ProductCategory pc, Product p " +
+            "WHERE pc.id.categoryId = cc.id.descendantId AND p.productId = pc.id.productId " +
+            "AND p.isActive = true " +
+            "GROUP BY cc.id.ancestorId")
+    List<Object[]> countActiveProductsPerAncestor();
+
+    @Query("SELECT pc.id.categoryId FROM ProductCategory pc WHERE pc.id.productId = :productId")
+    List<Long> findCategoryIdsByProductId(@Param("productId") Long productId);
 }
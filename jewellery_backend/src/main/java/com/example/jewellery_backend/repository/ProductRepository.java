@@ -1,10 +1,20 @@
 package com.example.jewellery_backend.repository;
 
+import com.example.jewellery_backend.dto.ProductSummary;
 import com.example.jewellery_backend.entity.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.lang.NonNull;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -18,4 +28,131 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     //  Load categories eagerly but only for active products
     @EntityGraph(attributePaths = {"productCategories", "productCategories.category"})
     List<Product> findByIsActiveTrue();
+
+    // ---- Catalog reads: ids first, then one fetch query per collection ----
+    // Fetching each collection separately avoids the cartesian product (and
+    // MultipleBagFetchException) of join-fetching images and attribute values together.
+
+    @Query("SELECT p.productId FROM Product p ORDER BY p.productId")
+    List<Long> findAllProductIds();
+
+    @Query("SELECT p.productId FROM Product p WHERE p.isActive = true ORDER BY p.productId")
+    List<Long> findActiveProductIds();
+
+    @Query("SELECT DISTINCT p FROM Product p " +
+            "LEFT JOIN FETCH p.productCategories pc LEFT JOIN FETCH pc.category " +
+            "WHERE p.productId IN :ids")
+    List<Product> findWithCategoriesByProductIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT DISTINCT p FROM Product p LEFT JOIN FETCH p.images WHERE p.productId IN :ids")
+    List<Product> findWithImagesByProductIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT DISTINCT p FROM Product p " +
+            "LEFT JOIN FETCH p.attributeValues pav LEFT JOIN FETCH pav.attributeValue " +
+            "WHERE p.productId IN :ids")
+    List<Product> findWithAttributeValuesByProductIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * List-view rows for the given ids in one query.
+     * The image is the first primary image, or the first image when none is marked primary.
+     * price is the stored current_price only if it was calculated at rateId, otherwise null
+     * so the caller can price the row itself.
+     */
+    @Query("SELECT new com.example.jewellery_backend.dto.ProductSummary(" +
+            "  p.productId, p.productName, img.imageUrl, " +
+            "  CASE WHEN p.pricedAtRateId = :rateId OR (p.pricedAtRateId IS NULL AND :rateId IS NULL) " +
+            "       THEN p.currentPrice ELSE NULL END, " +
+            "  p.stockQuantity, p.featured) " +
+            "FROM Product p " +
+            "LEFT JOIN ProductImage img ON img.product = p AND img.imageId = COALESCE(" +
+            "  (SELECT MIN(pi.imageId) FROM ProductImage pi WHERE pi.product = p AND pi.isPrimary = true), " +
+            "  (SELECT MIN(ai.imageId) FROM ProductImage ai WHERE ai.product = p)) " +
+            "WHERE p.productId IN :ids")
+    List<ProductSummary> findSummariesByProductIdIn(@Param("ids") Collection<Long> ids,
+                                                    @Param("rateId") Long rateId);
+
+    /**
+     * One page of active products in a category or any of its subcategories, as list-view rows,
+     * newest first. Closure -> product_categories is an EXISTS semi-join, so a product linked to
+     * several categories of the subtree still appears once without DISTINCT.
+     * price follows the same rule as findSummariesByProductIdIn.
+     */
+    @Query(value = "SELECT new com.example.jewellery_backend.dto.ProductSummary(" +
+            "  p.productId, p.productName, img.imageUrl, " +
+            "  CASE WHEN p.pricedAtRateId = :rateId OR (p.pricedAtRateId IS NULL AND :rateId IS NULL) " +
+            "       THEN p.currentPrice ELSE NULL END, " +
+            "  p.stockQuantity, p.featured) " +
+            "FROM Product p " +
+            "LEFT JOIN ProductImage img ON img.product = p AND img.imageId = COALESCE(" +
+            "  (SELECT MIN(pi.imageId) FROM ProductImage pi WHERE pi.product = p AND pi.isPrimary = true), " +
+            "  (SELECT MIN(ai.imageId) FROM ProductImage ai WHERE ai.product = p)) " +
+            "WHERE p.isActive = true AND EXISTS (" +
+            "  SELECT 1 FROM ProductCategory pc, CategoryClosure cc " +
+            "  WHERE pc.id.productId = p.productId AND pc.id.categoryId = cc.id.descendantId " +
+            "    AND cc.id.ancestorId = :categoryId) " +
+            "ORDER BY p.productId DESC",
+            countQuery = "SELECT COUNT(p) FROM Product p " +
+                    "WHERE p.isActive = true AND EXISTS (" +
+                    "  SELECT 1 FROM ProductCategory pc, CategoryClosure cc " +
+                    "  WHERE pc.id.productId = p.productId AND pc.id.categoryId = cc.id.descendantId " +
+                    "    AND cc.id.ancestorId = :categoryId)")
+    Page<ProductSummary> findActiveSummariesInCategoryTree(@Param("categoryId") Long categoryId,
+                                                           @Param("rateId") Long rateId,
+                                                           Pageable pageable);
+
+    // ---- Facet index: [productId, filter price] rows, filter price being the one the SQL filter uses ----
+
+    @Query("SELECT p.productId, COALESCE(p.currentPrice, p.basePrice) FROM Product p ORDER BY p.productId")
+    List<Object[]> findAllFilterPrices();
+
+    @Query("SELECT p.productId, COALESCE(p.currentPrice, p.basePrice) FROM Product p WHERE p.productId = :id")
+    List<Object[]> findFilterPriceByProductId(@Param("id") Long id);
+
+    // ---- Keyset paging: the Pageable only carries the limit, the cursor does the seeking ----
+    // Each query is one plain index range scan (no OR on parameters, no function on a column);
+    // featured-first listings read the featured group, then the rest, with one query each.
+
+    @Query("SELECT p.productId FROM Product p WHERE p.productId > :afterId ORDER BY p.productId")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable limit);
+
+    @Query("SELECT p.productId FROM Product p " +
+            "WHERE p.isActive = true AND p.productId > :afterId ORDER BY p.productId")
+    List<Long> findActiveIdsAfter(@Param("afterId") Long afterId, Pageable limit);
+
+    @Query("SELECT p.productId FROM Product p " +
+            "WHERE p.featured = :featured AND p.productId > :afterId ORDER BY p.productId")
+    List<Long> findIdsInFeaturedGroupAfter(@Param("featured") boolean featured,
+                                           @Param("afterId") Long afterId,
+                                           Pageable limit);
+
+    @Query("SELECT p.productId FROM Product p " +
+            "WHERE p.isActive = true AND p.featured = :featured AND p.productId > :afterId " +
+            "ORDER BY p.productId")
+    List<Long> findActiveIdsInFeaturedGroupAfter(@Param("featured") boolean featured,
+                                                 @Param("afterId") Long afterId,
+                                                 Pageable limit);
+
+    @Query("SELECT MIN(p.productId) FROM Product p")
+    Long findMinProductId();
+
+    @Query("SELECT MAX(p.productId) FROM Product p")
+    Long findMaxProductId();
+
+    // Bulk reprice one id range: (base + weight * karat/24 * rate) * (1 + markup/100).
+    // The karat division is done last so MySQL keeps full decimal precision.
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE products SET " +
+            "current_price = ROUND((base_price + CASE " +
+            "    WHEN is_gold = TRUE AND gold_weight_grams > 0 AND gold_purity_karat > 0 " +
+            "    THEN gold_weight_grams * gold_purity_karat * :rate / 24 " +
+            "    ELSE 0 END) * (1 + markup_percentage / 100), 2), " +
+            "priced_at_rate_id = :rateId " +
+            "WHERE product_id BETWEEN :fromId AND :toId " +
+            "AND (priced_at_rate_id IS NULL OR priced_at_rate_id <> :rateId)",
+            nativeQuery = true)
+    int repriceRange(@Param("fromId") Long fromId,
+                     @Param("toId") Long toId,
+                     @Param("rate") BigDecimal rate,
+                     @Param("rateId") Long rateId);
 }
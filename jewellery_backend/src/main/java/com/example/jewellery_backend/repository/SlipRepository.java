@@ -1,9 +1,13 @@
 package com.example.jewellery_backend.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import com.example.jewellery_backend.entity.Slip;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -13,4 +17,9 @@ public interface SlipRepository extends JpaRepository<Slip, Long> {
 
     Optional<Slip> findByOrder_OrderId(Long orderId);
 
+    // [orderId, fileName, filePath] of each order's first (lowest id) slip
+    @Query("SELECT s.order.orderId, s.fileName, s.filePath FROM Slip s WHERE s.slipId IN (" +
+           "SELECT MIN(s2.slipId) FROM Slip s2 WHERE s2.order.orderId IN :orderIds GROUP BY s2.order.orderId)")
+    List<Object[]> findFirstSlipRowsByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+
 }
@@ -0,0 +1,183 @@
+package com.example.jewellery_backend.service;
+
+import com.example.jewellery_backend.dto.Filter.FilterRequest;
+import com.example.jewellery_backend.entity.Attribute;
+import com.example.jewellery_backend.repository.AttributeRepository;
+import com.example.jewellery_backend.repository.AttributeValueRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Cached name <-> id dictionary for attributes and attribute values.
+ *
+ * Lets FilterServiceImpl turn "Color" / "22K" style filters into ids once per request, so
+ * every filter runs on indexed integer ids. Attributes are only written by SQL, so there is no
+ * write event to listen to: the dictionary is reloaded on a schedule, and when a filter names an
+ * attribute or value it does not know (one seeded since the last load), at most once per
+ * attribute-dictionary.miss-reload-interval-ms so unknown names cannot cause a reload per request.
+ */
+@Component
+public class AttributeDictionary {
+
+    private final AttributeRepository attributeRepository;
+    private final AttributeValueRepository attributeValueRepository;
+    private final long missReloadIntervalMs;
+
+    private volatile Snapshot snapshot;
+
+    public AttributeDictionary(AttributeRepository attributeRepository,
+                               AttributeValueRepository attributeValueRepository,
+                               @Value("${attribute-dictionary.miss-reload-interval-ms:5000}") long missReloadIntervalMs) {
+        this.attributeRepository = attributeRepository;
+        this.attributeValueRepository = attributeValueRepository;
+        this.missReloadIntervalMs = missReloadIntervalMs;
+    }
+
+    /**
+     * Copy of the request (always a new object) with every attribute key and value replaced by its id;
+     * names match case-insensitively and values are trimmed. Every value id kept belongs to its attribute.
+     * Returns null when a filter can match nothing (unknown name, or a value id that does not
+     * belong to the attribute), so the caller can answer with an empty page straight away.
+     */
+    public FilterRequest resolve(FilterRequest request) {
+        Map<String, List<String>> attributes = request.getAttributes() != null ? request.getAttributes() : Map.of();
+        if (attributes.isEmpty()) return resolve(request, null);
+        Snapshot dict = current();
+        FilterRequest resolved = resolve(request, dict);
+        if (resolved == null && System.currentTimeMillis() - dict.loadedAt >= missReloadIntervalMs) {
+            // Possibly seeded since the last load: look once more in a fresh copy
+            resolved = resolve(request, reload(dict));
+        }
+        return resolved;
+    }
+
+    private FilterRequest resolve(FilterRequest request, Snapshot dict) {
+        Map<String, List<String>> attributes = request.getAttributes() != null ? request.getAttributes() : Map.of();
+        Map<String, List<String>> resolved = new LinkedHashMap<>();
+        for (Map.Entry<String, List<String>> entry : attributes.entrySet()) {
+            List<String> values = entry.getValue();
+            if (values == null || values.isEmpty()) continue;
+
+            Long attributeId = parseId(entry.getKey(), false);
+            if (attributeId == null && entry.getKey() != null) {
+                attributeId = dict.attributeIdByName.get(entry.getKey().toLowerCase());
+            }
+            if (attributeId == null) return null;
+
+            Set<Long> valueIds = new TreeSet<>();
+            for (String v : values) {
+                if (v == null) continue;
+                Long valueId = parseId(v, true);
+                if (valueId != null) {
+                    if (attributeId.equals(dict.attributeIdByValueId.get(valueId))) valueIds.add(valueId);
+                } else {
+                    valueIds.addAll(dict.valueIds(attributeId, v.trim().toLowerCase()));
+                }
+            }
+            if (valueIds.isEmpty()) return null;
+
+            List<String> idStrings = new ArrayList<>();
+            valueIds.forEach(id -> idStrings.add(id.toString()));
+            // The same attribute given twice (by name and by id) keeps only values present in both
+            resolved.merge(attributeId.toString(), idStrings, (a, b) -> {
+                a.retainAll(b);
+                return a;
+            });
+            if (resolved.get(attributeId.toString()).isEmpty()) return null;
+        }
+
+        FilterRequest copy = new FilterRequest();
+        copy.setMinPrice(request.getMinPrice());
+        copy.setMaxPrice(request.getMaxPrice());
+        copy.setCategoryIds(request.getCategoryIds());
+        copy.setAttributes(resolved);
+        copy.setPage(request.getPage());
+        copy.setSize(request.getSize());
+        copy.setFacets(request.getFacets());
+        return copy;
+    }
+
+    public String attributeName(Long attributeId) {
+        return current().attributeNameById.get(attributeId);
+    }
+
+    public String valueName(Long valueId) {
+        return current().valueNameById.get(valueId);
+    }
+
+    @Scheduled(fixedDelayString = "${attribute-dictionary.refresh-interval-ms:600000}",
+            initialDelayString = "${attribute-dictionary.refresh-interval-ms:600000}")
+    public void scheduledRefresh() {
+        try {
+            reload(snapshot);
+        } catch (RuntimeException ex) {
+            System.err.println("Warning: attribute dictionary refresh failed: " + ex.getMessage());
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot s = snapshot;
+        return s != null ? s : reload(null);
+    }
+
+    // Loads a new snapshot unless another thread already replaced the stale one meanwhile
+    private synchronized Snapshot reload(Snapshot stale) {
+        if (snapshot != stale) {
+            return snapshot;
+        }
+        Snapshot next = new Snapshot(System.currentTimeMillis());
+        for (Attribute a : attributeRepository.findAll()) {
+            next.attributeNameById.put(a.getAttributeId(), a.getAttributeName());
+            if (a.getAttributeName() != null) {
+                next.attributeIdByName.put(a.getAttributeName().toLowerCase(), a.getAttributeId());
+            }
+        }
+        for (Object[] row : attributeValueRepository.findAllValueRows()) {
+            Long valueId = (Long) row[0];
+            Long attributeId = (Long) row[1];
+            String value = (String) row[2];
+            next.attributeIdByValueId.put(valueId, attributeId);
+            next.valueNameById.put(valueId, value);
+            if (value != null) {
+                next.valueIdsByAttributeAndName
+                        .computeIfAbsent(attributeId, k -> new HashMap<>())
+                        .computeIfAbsent(value.toLowerCase(), k -> new TreeSet<>())
+                        .add(valueId);
+            }
+        }
+        snapshot = next;
+        return next;
+    }
+
+    // Keys are parsed as-is and values trimmed
+    private static Long parseId(String s, boolean trim) {
+        if (s == null) return null;
+        try {
+            return Long.parseLong(trim ? s.trim() : s);
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    private static final class Snapshot {
+        final long loadedAt;
+        final Map<String, Long> attributeIdByName = new HashMap<>();
+        final Map<Long, String> attributeNameById = new HashMap<>();
+        final Map<Long, Long> attributeIdByValueId = new HashMap<>();
+        final Map<Long, String> valueNameById = new HashMap<>();
+        // attribute id -> lower-cased value -> value ids (values are not unique per attribute)
+        final Map<Long, Map<String, Set<Long>>> valueIdsByAttributeAndName = new HashMap<>();
+
+        Snapshot(long loadedAt) {
+            this.loadedAt = loadedAt;
+        }
+
+        Set<Long> valueIds(Long attributeId, String lowerName) {
+            return valueIdsByAttributeAndName.getOrDefault(attributeId, Collections.emptyMap())
+                    .getOrDefault(lowerName, Collections.emptySet());
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.jewellery_backend.service;
+
+import java.util.*;
+
+/**
+ * Hashed timer wheel of cart deadlines, shared by the cart stores for expiry and capacity eviction.
+ *
+ * The wheel has one bucket per tick of the TTL. Touching a cart moves its id into the bucket
+ * that comes due one TTL from now; each tick drains just the bucket that is due, so a sweep
+ * costs the number of expired carts, not the number of live ones. Buckets closest to the
+ * cursor hold the least recently touched carts, which makes {@link #pollOldest()} an LRU
+ * victim at tick granularity.
+ */
+final class CartExpiryWheel {
+
+    private final List<Set<String>> buckets;
+    private final Map<String, Integer> bucketOf = new HashMap<>();
+    private final int ticksPerTtl;
+    private int cursor;
+
+    CartExpiryWheel(long ttlMs, long tickMs) {
+        long tick = Math.max(1, tickMs);
+        this.ticksPerTtl = (int) Math.max(1, Math.min(100_000, (ttlMs + tick - 1) / tick));
+        this.buckets = new ArrayList<>(ticksPerTtl + 1);
+        for (int i = 0; i <= ticksPerTtl; i++) {
+            buckets.add(new LinkedHashSet<>());
+        }
+    }
+
+    /**
+     * (Re)start the cart's TTL from now.
+     */
+    synchronized void touch(String cartId) {
+        int due = (cursor + ticksPerTtl) % buckets.size();
+        Integer current = bucketOf.put(cartId, due);
+        if (current != null && current != due) {
+            buckets.get(current).remove(cartId);
+        }
+        buckets.get(due).add(cartId);
+    }
+
+    synchronized void remove(String cartId) {
+        Integer current = bucketOf.remove(cartId);
+        if (current != null) {
+            buckets.get(current).remove(cartId);
+        }
+    }
+
+    /**
+     * Move the wheel one tick and return the carts whose TTL ran out. Call once per tick.
+     */
+    synchronized List<String> advance() {
+        cursor = (cursor + 1) % buckets.size();
+        Set<String> due = buckets.get(cursor);
+        List<String> expired = new ArrayList<>(due);
+        due.clear();
+        expired.forEach(bucketOf::remove);
+        return expired;
+    }
+
+    /**
+     * Remove and return the least recently touched cart, or null if the wheel is empty.
+     */
+    synchronized String pollOldest() {
+        for (int i = 1; i <= buckets.size(); i++) {
+            Set<String> bucket = buckets.get((cursor + i) % buckets.size());
+            Iterator<String> it = bucket.iterator();
+            if (it.hasNext()) {
+                String cartId = it.next();
+                it.remove();
+                bucketOf.remove(cartId);
+                return cartId;
+            }
+        }
+        return null;
+    }
+
+    synchronized boolean contains(String cartId) {
+        return bucketOf.containsKey(cartId);
+    }
+
+    synchronized int size() {
+        return bucketOf.size();
+    }
+}
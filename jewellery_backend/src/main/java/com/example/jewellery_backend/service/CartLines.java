@@ -0,0 +1,74 @@
+package com.example.jewellery_backend.service;
+
+import com.example.jewellery_backend.Cart;
+import com.example.jewellery_backend.CartItem;
+import com.example.jewellery_backend.dto.ProductSummary;
+import com.example.jewellery_backend.util.CartMapper;
+import lombok.Value;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns stored cart lines (product, variant, quantity) back into a full Cart.
+ * Used by the stores that keep only the lines, not names, images and prices.
+ */
+final class CartLines {
+
+    // Rough heap cost of a cart (map entry, Cart, item map) and of each line (CartItem, strings, BigDecimals)
+    private static final long CART_BYTES = 250;
+    private static final long LINE_BYTES = 400;
+
+    private CartLines() {
+    }
+
+    /**
+     * Approximate heap held by a cart, for the cart stores' memory gauges.
+     */
+    static long estimateHeapBytes(Cart cart) {
+        return CART_BYTES + LINE_BYTES * cart.getItems().size();
+    }
+
+    /**
+     * One cart line as the compact stores keep it.
+     */
+    @Value
+    static class Line {
+        Long productId;
+        Long attributeValueId; // nullable
+        Integer quantity;
+    }
+
+    /**
+     * Name, image and current price come from one summary query for all lines.
+     * Lines whose product has been deleted are dropped.
+     */
+    static Cart toCart(List<Line> lines, ProductService productService) {
+        Cart cart = Cart.builder().build();
+        if (lines.isEmpty()) return cart;
+
+        List<Long> productIds = lines.stream().map(Line::getProductId).distinct().toList();
+        Map<Long, ProductSummary> summaries = new HashMap<>();
+        for (ProductSummary s : productService.getProductSummaries(productIds)) {
+            summaries.put(s.getProductId(), s);
+        }
+
+        for (Line line : lines) {
+            ProductSummary product = summaries.get(line.getProductId());
+            if (product == null) continue;
+            CartItem item = CartItem.builder()
+                    .itemKey(CartMapper.makeItemKey(product.getProductId(), line.getAttributeValueId()))
+                    .productId(product.getProductId())
+                    .attributeValueId(line.getAttributeValueId())
+                    .productName(product.getProductName())
+                    .quantity(line.getQuantity())
+                    .unitPrice(product.getPrice())
+                    .imageUrl(product.getPrimaryImageUrl())
+                    .imageAlt(product.getProductName())
+                    .build();
+            cart.addItem(item);
+        }
+        return cart;
+    }
+}
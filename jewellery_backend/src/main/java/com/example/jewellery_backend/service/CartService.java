@@ -1,12 +1,14 @@
 package com.example.jewellery_backend.service;
 
 import com.example.jewellery_backend.dto.*;
-import jakarta.servlet.http.HttpSession;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 
 public interface CartService {
-    CartResponseDto getCart(HttpSession session);
-    CartResponseDto addToCart(HttpSession session, AddToCartRequest req);
-    CartResponseDto updateCartItem(HttpSession session, UpdateCartItemRequest req);
-    CartResponseDto removeItem(HttpSession session, String itemKey);
-    CartResponseDto clearCart(HttpSession session);
+    // request/response carry the cart's identity in the cart cookie (issued on first use)
+    CartResponseDto getCart(HttpServletRequest request, HttpServletResponse response);
+    CartResponseDto addToCart(HttpServletRequest request, HttpServletResponse response, AddToCartRequest req);
+    CartResponseDto updateCartItem(HttpServletRequest request, HttpServletResponse response, UpdateCartItemRequest req);
+    CartResponseDto removeItem(HttpServletRequest request, HttpServletResponse response, String itemKey);
+    CartResponseDto clearCart(HttpServletRequest request, HttpServletResponse response);
 }
@@ -4,13 +4,15 @@ import com.example.jewellery_backend.Cart;
 import com.example.jewellery_backend.CartItem;
 import com.example.jewellery_backend.dto.*;
 import com.example.jewellery_backend.exception.ProductNotFoundException;
+import com.example.jewellery_backend.util.CartCookie;
 import com.example.jewellery_backend.util.CartMapper;
 import com.example.jewellery_backend.repository.*;
 import com.example.jewellery_backend.entity.Product;
 import com.example.jewellery_backend.entity.ProductImage;
 import com.example.jewellery_backend.service.ProductService;
 
-import jakarta.servlet.http.HttpSession;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -27,24 +29,25 @@ public class CartServiceImpl implements CartService {
     private final ProductRepository productRepository;
     private final ProductImageRepository productImageRepository;
     private final ProductService productService;
+    // Selected by cart.store.type (memory, jdbc or offheap)
+    private final CartStore cartStore;
 
-    private Cart getOrCreateCart(HttpSession session) {
-        Cart cart = (Cart) session.getAttribute(Cart.SESSION_ATTRIBUTE);
-        if (cart == null) {
-            cart = Cart.builder().build();
-            session.setAttribute(Cart.SESSION_ATTRIBUTE, cart);
-        }
-        return cart;
+    private Cart getOrCreateCart(HttpServletRequest request, HttpServletResponse response) {
+        return cartStore.load(CartCookie.resolve(request, response));
+    }
+
+    private void saveCart(HttpServletRequest request, HttpServletResponse response, Cart cart) {
+        cartStore.save(CartCookie.resolve(request, response), cart);
     }
 
     @Override
-    public CartResponseDto getCart(HttpSession session) {
-        Cart cart = getOrCreateCart(session);
+    public CartResponseDto getCart(HttpServletRequest request, HttpServletResponse response) {
+        Cart cart = getOrCreateCart(request, response);
         return toDto(cart);
     }
 
     @Override
-    public CartResponseDto addToCart(HttpSession session, AddToCartRequest req) {
+    public CartResponseDto addToCart(HttpServletRequest request, HttpServletResponse response, AddToCartRequest req) {
         Product product = productRepository.findById(req.getProductId())
                 .orElseThrow(() -> new ProductNotFoundException(req.getProductId()));
 
@@ -64,44 +67,53 @@ public class CartServiceImpl implements CartService {
         // attach image
         attachPrimaryImage(product.getProductId(), item);
 
-        Cart cart = getOrCreateCart(session);
-        cart.addItem(item);
-        session.setAttribute(Cart.SESSION_ATTRIBUTE, cart);
+        Cart cart = getOrCreateCart(request, response);
+        // A stored cart may be shared by concurrent requests of the same shopper
+        synchronized (cart) {
+            cart.addItem(item);
+        }
+        saveCart(request, response, cart);
 
         return toDto(cart);
     }
 
 
     @Override
-    public CartResponseDto updateCartItem(HttpSession session, UpdateCartItemRequest req) {
-        Cart cart = getOrCreateCart(session);
+    public CartResponseDto updateCartItem(HttpServletRequest request, HttpServletResponse response, UpdateCartItemRequest req) {
+        Cart cart = getOrCreateCart(request, response);
         CartItem item = cart.getItems().get(req.getItemKey());
         if (item != null) {
             BigDecimal updatedPrice = productService.getUpdatedPrice(item.getProductId());
             item.setUnitPrice(updatedPrice); // Update unit price before quantity
-            cart.updateQuantity(req.getItemKey(), req.getQuantity()); // Recalcs total
+            synchronized (cart) {
+                cart.updateQuantity(req.getItemKey(), req.getQuantity()); // Recalcs total
+            }
         } else {
 
             System.err.println("Warning: Cart item not found for key: " + req.getItemKey());
         }
 
-        session.setAttribute(Cart.SESSION_ATTRIBUTE, cart);
+        saveCart(request, response, cart);
         return toDto(cart);
     }
 
     @Override
-    public CartResponseDto removeItem(HttpSession session, String itemKey) {
-        Cart cart = getOrCreateCart(session);
-        cart.removeItem(itemKey);
-        session.setAttribute(Cart.SESSION_ATTRIBUTE, cart);
+    public CartResponseDto removeItem(HttpServletRequest request, HttpServletResponse response, String itemKey) {
+        Cart cart = getOrCreateCart(request, response);
+        synchronized (cart) {
+            cart.removeItem(itemKey);
+        }
+        saveCart(request, response, cart);
         return toDto(cart);
     }
 
     @Override
-    public CartResponseDto clearCart(HttpSession session) {
-        Cart cart = getOrCreateCart(session);
-        cart.clear();
-        session.setAttribute(Cart.SESSION_ATTRIBUTE, cart);
+    public CartResponseDto clearCart(HttpServletRequest request, HttpServletResponse response) {
+        Cart cart = getOrCreateCart(request, response);
+        synchronized (cart) {
+            cart.clear();
+        }
+        saveCart(request, response, cart);
         return toDto(cart);
     }
 
@@ -0,0 +1,20 @@
+package com.example.jewellery_backend.service;
+
+import com.example.jewellery_backend.Cart;
+
+/**
+ * Where carts live between requests, keyed by the cart cookie id.
+ * One implementation is active, chosen by cart.store.type (memory, jdbc or offheap).
+ */
+public interface CartStore {
+
+    /**
+     * The stored cart, or a new empty one. Changes to it are only kept once passed to {@link #save}.
+     */
+    Cart load(String cartId);
+
+    /**
+     * Store the cart's current contents. An empty cart may be dropped from the store.
+     */
+    void save(String cartId, Cart cart);
+}
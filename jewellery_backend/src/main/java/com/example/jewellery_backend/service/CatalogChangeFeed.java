@@ -0,0 +1,302 @@
+package com.example.jewellery_backend.service;
+
+import com.example.jewellery_backend.event.CategoryChangedEvent;
+import com.example.jewellery_backend.event.GoldRateChangedEvent;
+import com.example.jewellery_backend.event.ProductChangedEvent;
+import com.example.jewellery_backend.event.ProductStockChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+
+/**
+ * Shared log of committed catalog writes, so the per-node caches stay correct when several
+ * backend nodes serve the storefront.
+ *
+ * After a product, stock, category or gold rate write commits, this node appends a row to
+ * catalog_changes. Every node polls the table and publishes the other nodes' rows as the same
+ * local events ({@link ProductChangedEvent}, {@link ProductStockChangedEvent},
+ * {@link CategoryChangedEvent}; a new gold rate is re-read through {@link GoldRateSnapshot}),
+ * so the caches listening to them evict exactly as they do for a local write. The id of the
+ * newest row applied is the {@link CatalogVersion}, which makes the catalog ETag the same on
+ * every node and across restarts.
+ *
+ * Product and category writes are logged and polled at once on the async executor; stock changes,
+ * which come with every checkout, are logged by the next scheduled poll. A row whose transaction
+ * commits after a higher id was already read is looked for until the gap timeout; the version
+ * stays below it meanwhile, so no node hands out a tag for data it has not seen.
+ * Rows older than the retention period are purged in small batches.
+ */
+@Component
+public class CatalogChangeFeed {
+
+    static final String PRODUCT = "PRODUCT";
+    static final String STOCK = "STOCK";
+    static final String CATEGORY = "CATEGORY";
+    static final String GOLD_RATE = "GOLD_RATE";
+
+    private static final int PAGE_SIZE = 1000;
+    private static final int MAX_GAPS = 1000;
+    private static final String INSERT =
+            "INSERT INTO catalog_changes (kind, entity_id, node_id) VALUES (?, ?, ?)";
+    private static final String SELECT_MAX =
+            "SELECT COALESCE(MAX(change_id), 0) FROM catalog_changes";
+    private static final String SELECT_LAST_GOLD_RATE =
+            "SELECT entity_id FROM catalog_changes WHERE kind = 'GOLD_RATE' ORDER BY change_id DESC LIMIT 1";
+    private static final String SELECT_AFTER =
+            "SELECT change_id, kind, entity_id, node_id FROM catalog_changes WHERE change_id > ?";
+    private static final int PURGE_BATCH_SIZE = 1000;
+    private static final String PURGE_BATCH =
+            "DELETE FROM catalog_changes WHERE changed_at < ? LIMIT " + PURGE_BATCH_SIZE;
+
+    // Set while other nodes' changes are published, so they are not logged a second time
+    private static final ThreadLocal<Boolean> REPLAYING = new ThreadLocal<>();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final GoldRateSnapshot goldRateSnapshot;
+    private final CatalogVersion catalogVersion;
+    private final long gapTimeoutMs;
+    private final long retentionMs;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    // Changes committed on this node and not yet written to catalog_changes
+    private final Queue<Object[]> pending = new ConcurrentLinkedQueue<>();
+    // Guarded by this; lastId is -1 until the feed has started
+    private long lastId = -1;
+    // Skipped change id -> when it was first missed
+    private final Map<Long, Long> gaps = new HashMap<>();
+    private volatile Long knownGoldRateId;
+
+    public CatalogChangeFeed(JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             ApplicationEventPublisher eventPublisher,
+                             GoldRateSnapshot goldRateSnapshot,
+                             CatalogVersion catalogVersion,
+                             @Value("${catalog.change-feed.gap-timeout-ms:10000}") long gapTimeoutMs,
+                             @Value("${catalog.change-feed.retention-ms:86400000}") long retentionMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.goldRateSnapshot = goldRateSnapshot;
+        this.catalogVersion = catalogVersion;
+        this.gapTimeoutMs = gapTimeoutMs;
+        this.retentionMs = retentionMs;
+    }
+
+    /**
+     * True while this thread publishes another node's changes; the listeners below skip those.
+     */
+    public boolean isReplaying() {
+        return REPLAYING.get() != null;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startOnReady() {
+        poll();
+    }
+
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true,
+            condition = "!@catalogChangeFeed.replaying")
+    public void onProductChanged(ProductChangedEvent event) {
+        pending.add(new Object[]{PRODUCT, event.getProductId(), nodeId});
+        poll();
+    }
+
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true,
+            condition = "!@catalogChangeFeed.replaying")
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        pending.add(new Object[]{CATEGORY, event.getCategoryId(), nodeId});
+        poll();
+    }
+
+    // One row per product; written by the next scheduled poll
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true,
+            condition = "!@catalogChangeFeed.replaying")
+    public void onProductStockChanged(ProductStockChangedEvent event) {
+        for (Long productId : event.getProductIds()) {
+            pending.add(new Object[]{STOCK, productId, nodeId});
+        }
+    }
+
+    // Every node swaps in a new rate on its own refresh too; only the first one logs it
+    @Async
+    @EventListener(condition = "!@catalogChangeFeed.replaying")
+    public void onGoldRateChanged(GoldRateChangedEvent event) {
+        if (Objects.equals(event.getHistoryId(), knownGoldRateId)) return;
+        knownGoldRateId = event.getHistoryId();
+        pending.add(new Object[]{GOLD_RATE, event.getHistoryId(), nodeId});
+        poll();
+    }
+
+    /**
+     * Write this node's pending changes, then apply the other nodes' new ones and advance the
+     * catalog version. A failed poll keeps its pending changes for the next one.
+     */
+    @Scheduled(fixedDelayString = "${catalog.change-feed.poll-interval-ms:1000}",
+            initialDelayString = "${catalog.change-feed.poll-interval-ms:1000}")
+    public synchronized void poll() {
+        try {
+            if (lastId < 0) start();
+            writePending();
+            List<Row> page;
+            do {
+                page = readPage();
+                apply(advance(page));
+            } while (page.size() == PAGE_SIZE);
+        } catch (RuntimeException ex) {
+            System.err.println("Warning: polling catalog changes failed: " + ex.getMessage());
+            if (lastId < 0) return;
+        }
+        long now = System.currentTimeMillis();
+        gaps.values().removeIf(missedAt -> now - missedAt > gapTimeoutMs);
+        catalogVersion.advanceTo(gaps.isEmpty() ? lastId : Collections.min(gaps.keySet()) - 1);
+    }
+
+    /**
+     * Delete rows older than the retention period, a batch at a time.
+     * Uses the catalog_changes(changed_at) index.
+     */
+    @Scheduled(fixedDelayString = "${catalog.change-feed.purge-interval-ms:3600000}")
+    public void purgeOld() {
+        Timestamp cutoff = new Timestamp(System.currentTimeMillis() - retentionMs);
+        try {
+            int deleted;
+            do {
+                deleted = jdbcTemplate.update(PURGE_BATCH, cutoff);
+            } while (deleted == PURGE_BATCH_SIZE);
+        } catch (RuntimeException ex) {
+            System.err.println("Warning: purging catalog changes failed: " + ex.getMessage());
+        }
+    }
+
+    // Caches start empty, so only changes from now on matter
+    private void start() {
+        lastId = jdbcTemplate.queryForObject(SELECT_MAX, Long.class);
+        List<Long> goldRate = jdbcTemplate.queryForList(SELECT_LAST_GOLD_RATE, Long.class);
+        if (knownGoldRateId == null && !goldRate.isEmpty()) {
+            knownGoldRateId = goldRate.get(0);
+        }
+    }
+
+    // One multi-row transaction, so a failed write can be retried without logging rows twice
+    private void writePending() {
+        List<Object[]> batch = new ArrayList<>();
+        for (Object[] change; (change = pending.poll()) != null; ) {
+            batch.add(change);
+        }
+        if (batch.isEmpty()) return;
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT, batch));
+        } catch (RuntimeException ex) {
+            pending.addAll(batch);
+            throw ex;
+        }
+    }
+
+    // Rows after lastId plus the skipped ids still looked for, in id order
+    private List<Row> readPage() {
+        StringBuilder sql = new StringBuilder(SELECT_AFTER);
+        List<Object> args = new ArrayList<>();
+        args.add(lastId);
+        if (!gaps.isEmpty()) {
+            sql.append(" OR change_id IN (")
+                    .append(gaps.keySet().stream().map(id -> "?").collect(Collectors.joining(", ")))
+                    .append(")");
+            args.addAll(gaps.keySet());
+        }
+        sql.append(" ORDER BY change_id LIMIT ").append(PAGE_SIZE);
+        return jdbcTemplate.query(sql.toString(), (rs, n) -> new Row(
+                rs.getLong("change_id"),
+                rs.getString("kind"),
+                rs.getObject("entity_id", Long.class),
+                rs.getString("node_id")), args.toArray());
+    }
+
+    // Moves lastId past the page and records the ids it skipped; returns the rows not seen before
+    private List<Row> advance(List<Row> page) {
+        List<Row> fresh = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (Row row : page) {
+            if (gaps.remove(row.changeId) == null && row.changeId <= lastId) continue;
+            for (long skipped = lastId + 1; skipped < row.changeId && gaps.size() < MAX_GAPS; skipped++) {
+                gaps.put(skipped, now);
+            }
+            lastId = Math.max(lastId, row.changeId);
+            fresh.add(row);
+        }
+        return fresh;
+    }
+
+    private void apply(List<Row> rows) {
+        Set<Long> products = new LinkedHashSet<>();
+        Set<Long> stock = new LinkedHashSet<>();
+        Set<Long> categories = new LinkedHashSet<>();
+        Long goldRateId = null;
+        for (Row row : rows) {
+            if (row.kind.equals(GOLD_RATE)) {
+                // Known on every node, so a later local swap to the same rate is not logged again
+                knownGoldRateId = row.entityId;
+                if (!row.nodeId.equals(nodeId)) goldRateId = row.entityId;
+            }
+            if (row.nodeId.equals(nodeId) || row.entityId == null) continue;
+            switch (row.kind) {
+                case PRODUCT -> products.add(row.entityId);
+                case STOCK -> stock.add(row.entityId);
+                case CATEGORY -> categories.add(row.entityId);
+                default -> { }
+            }
+        }
+        if (products.isEmpty() && stock.isEmpty() && categories.isEmpty() && goldRateId == null) return;
+
+        REPLAYING.set(Boolean.TRUE);
+        try {
+            if (goldRateId != null) {
+                goldRateSnapshot.refresh();
+            }
+            for (Long categoryId : categories) {
+                eventPublisher.publishEvent(new CategoryChangedEvent(categoryId));
+            }
+            for (Long productId : products) {
+                eventPublisher.publishEvent(new ProductChangedEvent(productId));
+            }
+            if (!stock.isEmpty()) {
+                eventPublisher.publishEvent(new ProductStockChangedEvent(stock));
+            }
+        } catch (RuntimeException ex) {
+            System.err.println("Warning: applying catalog changes from other nodes failed: " + ex.getMessage());
+        } finally {
+            REPLAYING.remove();
+        }
+    }
+
+    private static final class Row {
+        final long changeId;
+        final String kind;
+        final Long entityId;
+        final String nodeId;
+
+        Row(long changeId, String kind, Long entityId, String nodeId) {
+            this.changeId = changeId;
+            this.kind = kind;
+            this.entityId = entityId;
+            this.nodeId = nodeId;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.jewellery_backend.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version number of everything the storefront polls: products, categories and the gold rate.
+ *
+ * It is the id of the newest catalog_changes row this node has applied (see {@link CatalogChangeFeed}),
+ * so every node hands out the same tag for the same data, a write on one node changes the tag on
+ * all of them, and tags stay valid across restarts. Used as the ETag of the catalog endpoints,
+ * so a poll can be answered with 304 without reading the database.
+ */
+@Component
+public class CatalogVersion {
+
+    private final AtomicLong version = new AtomicLong();
+
+    public long current() {
+        return version.get();
+    }
+
+    /**
+     * Strong ETag for the current version. Read it before loading the data it describes:
+     * a write landing in between then only costs the client one extra full response.
+     */
+    public String etag() {
+        return "\"catalog-" + version.get() + "\"";
+    }
+
+    /**
+     * Move to the given change id; never goes back.
+     */
+    public void advanceTo(long changeId) {
+        version.accumulateAndGet(changeId, Math::max);
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.jewellery_backend.service;
+
+import com.example.jewellery_backend.dto.CategoryTreeNodeDto;
+import com.example.jewellery_backend.event.CategoryChangedEvent;
+import com.example.jewellery_backend.event.ProductChangedEvent;
+import com.example.jewellery_backend.repository.ProductCategoryRepository;
+import lombok.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prebuilt storefront menu: the nested category tree with active product counts per node.
+ *
+ * Requests only read the current immutable {@link Snapshot}. After a committed category or
+ * product write the tree is rebuilt on the async executor and swapped in with one volatile
+ * write; a burst of writes collapses into as few rebuilds as possible.
+ */
+@Component
+public class CategoryMenu {
+
+    private final CategoryTree categoryTree;
+    private final ProductCategoryRepository productCategoryRepository;
+
+    // Starts from the boot time so tags handed out by a previous run never match after a restart
+    private final AtomicLong generation = new AtomicLong(System.currentTimeMillis());
+    // Writes seen since the last rebuild started
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private volatile Snapshot snapshot;
+
+    public CategoryMenu(CategoryTree categoryTree,
+                        ProductCategoryRepository productCategoryRepository) {
+        this.categoryTree = categoryTree;
+        this.productCategoryRepository = productCategoryRepository;
+    }
+
+    public Snapshot current() {
+        Snapshot s = snapshot;
+        if (s == null) {
+            pending.incrementAndGet();
+            rebuildIfPending();
+            s = snapshot;
+        }
+        return s;
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        pending.incrementAndGet();
+        rebuildIfPending();
+    }
+
+    // Runs after CategoryTree has picked up the same write
+    @Async
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        pending.incrementAndGet();
+        rebuildIfPending();
+    }
+
+    // Product writes change category links and the active flag, so the counts
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        pending.incrementAndGet();
+        rebuildIfPending();
+    }
+
+    private synchronized void rebuildIfPending() {
+        // Writes counted before this point are all covered by the reads below
+        if (pending.getAndSet(0) == 0) return;
+        try {
+            snapshot = build();
+        } catch (RuntimeException ex) {
+            // Keep serving the previous tree; the next write retries
+            System.err.println("Warning: category menu rebuild failed: " + ex.getMessage());
+        }
+    }
+
+    private Snapshot build() {
+        Map<Long, Long> counts = new HashMap<>();
+        for (Object[] row : productCategoryRepository.countActiveProductsPerAncestor()) {
+            counts.put((Long) row[0], (Long) row[1]);
+        }
+
+        List<CategoryTreeNodeDto> roots = new ArrayList<>();
+        for (CategoryTree.Node node : categoryTree.allNodes()) {
+            if (isActive(node) && categoryTree.ancestorIds(node.getCategoryId()).isEmpty()) {
+                roots.add(toTreeNode(node, counts));
+            }
+        }
+        roots.sort(Comparator.comparing(CategoryTreeNodeDto::getCategoryId));
+        return new Snapshot("\"category-tree-" + generation.incrementAndGet() + "\"",
+                Collections.unmodifiableList(roots));
+    }
+
+    private CategoryTreeNodeDto toTreeNode(CategoryTree.Node node, Map<Long, Long> counts) {
+        List<CategoryTreeNodeDto> children = new ArrayList<>();
+        for (CategoryTree.Node child : categoryTree.children(node.getCategoryId())) {
+            // An inactive category hides its whole subtree from the menu
+            if (child != null && isActive(child)) {
+                children.add(toTreeNode(child, counts));
+            }
+        }
+        return CategoryTreeNodeDto.builder()
+                .categoryId(node.getCategoryId())
+                .categoryName(node.getCategoryName())
+                .slug(node.getSlug())
+                .productCount(counts.getOrDefault(node.getCategoryId(), 0L))
+                .children(Collections.unmodifiableList(children))
+                .build();
+    }
+
+    private static boolean isActive(CategoryTree.Node node) {
+        return node.getIsActive() == null || node.getIsActive();
+    }
+
+    /**
+     * One built tree and the ETag that identifies it.
+     */
+    @Value
+    public static class Snapshot {
+        String etag;
+        List<CategoryTreeNodeDto> roots;
+    }
+}
@@ -9,4 +9,8 @@ public interface CategoryService {
     void deleteCategory(Long id);
     CategoryDto getCategoryById(Long id);
     List<CategoryDto> getAllCategories();
+    // Root-to-category path, for breadcrumbs
+    List<CategoryDto> getBreadcrumb(Long id);
+    // Direct subcategories
+    List<CategoryDto> getChildren(Long id);
 }
@@ -0,0 +1,196 @@
+package com.example.jewellery_backend.service;
+
+import com.example.jewellery_backend.entity.Category;
+import com.example.jewellery_backend.event.CategoryChangedEvent;
+import com.example.jewellery_backend.repository.CategoryClosureRepository;
+import com.example.jewellery_backend.repository.CategoryRepository;
+import lombok.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+
+/**
+ * In-memory copy of the category hierarchy, built from categories_closure.
+ *
+ * Answers descendant, ancestor, children and breadcrumb lookups without a query. The whole
+ * tree is small, so it is rebuilt (two queries) after every committed category write and
+ * swapped in as one immutable snapshot; a scheduled rebuild picks up rows written by SQL.
+ * Descendants are exactly the closure rows, so they agree with the category product listing,
+ * which reads the same rows in SQL.
+ */
+@Component
+public class CategoryTree {
+
+    private final CategoryRepository categoryRepository;
+    private final CategoryClosureRepository categoryClosureRepository;
+
+    private volatile Snapshot snapshot;
+
+    public CategoryTree(CategoryRepository categoryRepository,
+                        CategoryClosureRepository categoryClosureRepository) {
+        this.categoryRepository = categoryRepository;
+        this.categoryClosureRepository = categoryClosureRepository;
+    }
+
+    public boolean contains(Long categoryId) {
+        return current().nodes.containsKey(categoryId);
+    }
+
+    public Optional<Node> node(Long categoryId) {
+        return Optional.ofNullable(current().nodes.get(categoryId));
+    }
+
+    public Collection<Node> allNodes() {
+        return current().nodes.values();
+    }
+
+    /**
+     * The category and everything below it, as listed in categories_closure (a category whose
+     * depth-0 row is missing does not include itself). Unknown ids give an empty set.
+     */
+    public Set<Long> descendantIds(Long categoryId) {
+        return current().descendants.getOrDefault(categoryId, Collections.emptySet());
+    }
+
+    /**
+     * All given categories plus everything below them, by {@link #descendantIds}.
+     */
+    public Set<Long> expandDescendants(Collection<Long> categoryIds) {
+        Snapshot s = current();
+        Set<Long> expanded = new HashSet<>();
+        for (Long id : categoryIds) {
+            if (id == null) continue;
+            expanded.addAll(s.descendants.getOrDefault(id, Collections.emptySet()));
+        }
+        return expanded;
+    }
+
+    /**
+     * Ancestors from the root down to the direct parent, not including the category itself.
+     */
+    public List<Long> ancestorIds(Long categoryId) {
+        return current().ancestors.getOrDefault(categoryId, Collections.emptyList());
+    }
+
+    public List<Node> children(Long categoryId) {
+        Snapshot s = current();
+        List<Node> children = new ArrayList<>();
+        for (Long childId : s.children.getOrDefault(categoryId, Collections.emptyList())) {
+            children.add(s.nodes.get(childId));
+        }
+        return children;
+    }
+
+    /**
+     * Path from the root to the category, both included. Empty for unknown ids.
+     */
+    public List<Node> breadcrumb(Long categoryId) {
+        Snapshot s = current();
+        Node self = s.nodes.get(categoryId);
+        if (self == null) return Collections.emptyList();
+        List<Node> path = new ArrayList<>();
+        for (Long ancestorId : s.ancestors.getOrDefault(categoryId, Collections.emptyList())) {
+            Node ancestor = s.nodes.get(ancestorId);
+            if (ancestor != null) path.add(ancestor);
+        }
+        path.add(self);
+        return path;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuild();
+    }
+
+    // Before listeners that read the tree, such as CategoryMenu
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${category-tree.rebuild-interval-ms:600000}",
+            initialDelayString = "${category-tree.rebuild-interval-ms:600000}")
+    public void scheduledRebuild() {
+        try {
+            rebuild();
+        } catch (RuntimeException ex) {
+            System.err.println("Warning: category tree rebuild failed: " + ex.getMessage());
+        }
+    }
+
+    public synchronized void rebuild() {
+        Snapshot next = new Snapshot();
+        for (Category c : categoryRepository.findAll()) {
+            next.nodes.put(c.getCategoryId(), new Node(c.getCategoryId(), c.getCategoryName(), c.getSlug(), c.getIsActive()));
+        }
+
+        // ancestor -> descendant rows; depth 1 rows are the parent/child edges
+        Map<Long, TreeMap<Integer, Long>> ancestorsByDepth = new HashMap<>();
+        for (Object[] row : categoryClosureRepository.findAllPairs()) {
+            Long ancestorId = (Long) row[0];
+            Long descendantId = (Long) row[1];
+            Integer depth = (Integer) row[2];
+            if (!next.nodes.containsKey(ancestorId) || !next.nodes.containsKey(descendantId)) continue;
+
+            next.descendants.computeIfAbsent(ancestorId, k -> new HashSet<>()).add(descendantId);
+            if (depth != null && depth > 0) {
+                ancestorsByDepth.computeIfAbsent(descendantId, k -> new TreeMap<>()).put(depth, ancestorId);
+            }
+            if (depth != null && depth == 1) {
+                next.children.computeIfAbsent(ancestorId, k -> new ArrayList<>()).add(descendantId);
+            }
+        }
+        // Deepest ancestor (the root) first
+        ancestorsByDepth.forEach((descendantId, byDepth) ->
+                next.ancestors.put(descendantId, new ArrayList<>(byDepth.descendingMap().values())));
+        next.children.values().forEach(Collections::sort);
+
+        next.freeze();
+        snapshot = next;
+    }
+
+    private Snapshot current() {
+        Snapshot s = snapshot;
+        if (s == null) {
+            rebuild();
+            s = snapshot;
+        }
+        return s;
+    }
+
+    /**
+     * Name and flags of one category, as held in the tree.
+     */
+    @Value
+    public static class Node {
+        Long categoryId;
+        String categoryName;
+        String slug;
+        Boolean isActive;
+    }
+
+    private static final class Snapshot {
+        Map<Long, Node> nodes = new LinkedHashMap<>();
+        Map<Long, Set<Long>> descendants = new HashMap<>();
+        Map<Long, List<Long>> ancestors = new HashMap<>();
+        Map<Long, List<Long>> children = new HashMap<>();
+
+        void freeze() {
+            nodes = Collections.unmodifiableMap(nodes);
+            descendants.replaceAll((id, set) -> Collections.unmodifiableSet(set));
+            descendants = Collections.unmodifiableMap(descendants);
+            ancestors.replaceAll((id, list) -> Collections.unmodifiableList(list));
+            ancestors = Collections.unmodifiableMap(ancestors);
+            children.replaceAll((id, list) -> Collections.unmodifiableList(list));
+            children = Collections.unmodifiableMap(children);
+        }
+    }
+}
@@ -11,9 +11,11 @@ import java.util.Optional;
 public class GoldRateService {
 
     private final GoldRateRepository goldRateRepository;
+    private final GoldRateSnapshot goldRateSnapshot;
 
-    public GoldRateService(GoldRateRepository goldRateRepository) {
+    public GoldRateService(GoldRateRepository goldRateRepository, GoldRateSnapshot goldRateSnapshot) {
         this.goldRateRepository = goldRateRepository;
+        this.goldRateSnapshot = goldRateSnapshot;
     }
 
     public List<GoldRate> getAllGoldRates() {
@@ -25,6 +27,9 @@ public class GoldRateService {
     }
 
     public GoldRate saveGoldRate(GoldRate goldRate) {
-        return goldRateRepository.save(goldRate);
+        GoldRate saved = goldRateRepository.save(goldRate);
+        // Swap the new rate into the in-memory snapshot used for pricing
+        goldRateSnapshot.refresh();
+        return saved;
     }
 }
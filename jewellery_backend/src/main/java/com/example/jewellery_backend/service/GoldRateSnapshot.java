@@ -0,0 +1,135 @@
+package com.example.jewellery_backend.service;
+
+import com.example.jewellery_backend.entity.GoldRate;
+import com.example.jewellery_backend.event.GoldRateChangedEvent;
+import com.example.jewellery_backend.repository.GoldRateRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory copy of the latest gold rate used for pricing.
+ *
+ * The rate is held in an immutable {@link Snapshot} that is swapped atomically, so
+ * pricing reads it without touching gold_rate_history. The snapshot is refreshed when
+ * {@link GoldRateService#saveGoldRate} writes a new rate and on a fixed schedule as a
+ * safety net for rows inserted outside the API. Every time a different rate row is
+ * swapped in a {@link GoldRateChangedEvent} is published.
+ */
+@Component
+public class GoldRateSnapshot {
+
+    private final GoldRateRepository goldRateRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AtomicReference<Snapshot> current = new AtomicReference<>(Snapshot.EMPTY);
+    private final AtomicLong swapCount = new AtomicLong();
+
+    public GoldRateSnapshot(GoldRateRepository goldRateRepository,
+                            ApplicationEventPublisher eventPublisher,
+                            MeterRegistry meterRegistry) {
+        this.goldRateRepository = goldRateRepository;
+        this.eventPublisher = eventPublisher;
+
+        Gauge.builder("gold.rate.snapshot.age", this, GoldRateSnapshot::ageSeconds)
+                .description("Seconds since the gold rate snapshot was last loaded")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        FunctionCounter.builder("gold.rate.snapshot.swaps", swapCount, AtomicLong::get)
+                .description("Number of times a different gold rate was swapped in")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Current snapshot. Loads it on first use if the startup load has not run yet.
+     */
+    public Snapshot current() {
+        Snapshot snapshot = current.get();
+        if (snapshot.getLoadedAt() == null) {
+            return refresh();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Current gold rate per gram, or zero when no rate has been recorded.
+     */
+    public BigDecimal currentRate() {
+        return current().getRatePerGram();
+    }
+
+    /**
+     * Re-read the latest rate from the database and swap it in.
+     * Synchronized so an older read can never overwrite a newer one.
+     */
+    public synchronized Snapshot refresh() {
+        GoldRate latest = goldRateRepository.findTopByOrderByEffectiveDateDesc().orElse(null);
+        Snapshot next = Snapshot.of(latest);
+        Snapshot previous = current.getAndSet(next);
+        if (!Objects.equals(previous.getHistoryId(), next.getHistoryId())) {
+            swapCount.incrementAndGet();
+            if (next.getHistoryId() != null) {
+                eventPublisher.publishEvent(new GoldRateChangedEvent(next.getHistoryId(), next.getRate()));
+            }
+        }
+        return next;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${gold-rate.snapshot.refresh-interval-ms:300000}",
+            initialDelayString = "${gold-rate.snapshot.refresh-interval-ms:300000}")
+    public void scheduledRefresh() {
+        refresh();
+    }
+
+    public long getSwapCount() {
+        return swapCount.get();
+    }
+
+    private double ageSeconds() {
+        Instant loadedAt = current.get().getLoadedAt();
+        if (loadedAt == null) return Double.NaN;
+        return Duration.between(loadedAt, Instant.now()).toMillis() / 1000.0;
+    }
+
+    /**
+     * Immutable view of one gold_rate_history row plus the time it was loaded.
+     */
+    @Value
+    public static class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(null, null, null, null);
+
+        Long historyId;
+        BigDecimal rate;
+        LocalDate effectiveDate;
+        Instant loadedAt;
+
+        static Snapshot of(GoldRate goldRate) {
+            if (goldRate == null) {
+                return new Snapshot(null, null, null, Instant.now());
+            }
+            return new Snapshot(goldRate.getHistoryId(), goldRate.getRate(), goldRate.getEffectiveDate(), Instant.now());
+        }
+
+        public BigDecimal getRatePerGram() {
+            return rate != null ? rate : BigDecimal.ZERO;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.jewellery_backend.service;
+
+import com.example.jewellery_backend.Cart;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Carts in a concurrent map on this node. Fastest store, but carts are lost on restart and each
+ * shopper has to keep hitting the same node.
+ *
+ * Carts idle for longer than the TTL are dropped by a {@link CartExpiryWheel} sweep, and beyond
+ * cart.store.max-live-carts the least recently used carts are evicted, so bot traffic cannot
+ * grow the heap without bound.
+ */
+@Component
+@ConditionalOnProperty(name = "cart.store.type", havingValue = "memory", matchIfMissing = true)
+public class InMemoryCartStore implements CartStore {
+
+    private final Map<String, Cart> carts = new ConcurrentHashMap<>();
+    private final CartExpiryWheel wheel;
+    private final int maxLiveCarts;
+
+    private final Counter expired;
+    private final Counter evicted;
+
+    public InMemoryCartStore(@Value("${cart.store.ttl-ms:1800000}") long ttlMs,
+                             @Value("${cart.store.sweep-interval-ms:60000}") long sweepIntervalMs,
+                             @Value("${cart.store.max-live-carts:50000}") int maxLiveCarts,
+                             MeterRegistry meterRegistry) {
+        this.wheel = new CartExpiryWheel(ttlMs, sweepIntervalMs);
+        this.maxLiveCarts = Math.max(1, maxLiveCarts);
+        this.expired = Counter.builder("cart.store.evictions")
+                .tag("store", "memory").tag("reason", "ttl")
+                .description("Carts dropped after being idle longer than the TTL")
+                .register(meterRegistry);
+        this.evicted = Counter.builder("cart.store.evictions")
+                .tag("store", "memory").tag("reason", "capacity")
+                .description("Least recently used carts dropped to stay under the live cart cap")
+                .register(meterRegistry);
+        Gauge.builder("cart.store.live", carts, Map::size)
+                .tag("store", "memory")
+                .description("Carts currently held")
+                .register(meterRegistry);
+        Gauge.builder("cart.store.memory.estimate", this, InMemoryCartStore::estimateBytes)
+                .tag("store", "memory")
+                .baseUnit("bytes")
+                .description("Approximate heap used by the held carts")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Cart load(String cartId) {
+        Cart cart = carts.get(cartId);
+        if (cart == null) return Cart.builder().build();
+        wheel.touch(cartId);
+        return cart;
+    }
+
+    @Override
+    public void save(String cartId, Cart cart) {
+        if (cart.getItems().isEmpty()) {
+            carts.remove(cartId);
+            wheel.remove(cartId);
+            return;
+        }
+        carts.put(cartId, cart);
+        wheel.touch(cartId);
+        while (carts.size() > maxLiveCarts) {
+            String victim = wheel.pollOldest();
+            if (victim == null) break;
+            if (carts.remove(victim) != null) evicted.increment();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cart.store.sweep-interval-ms:60000}")
+    public void sweep() {
+        for (String cartId : wheel.advance()) {
+            // Skip carts saved again since the bucket was drained
+            if (!wheel.contains(cartId) && carts.remove(cartId) != null) expired.increment();
+        }
+    }
+
+    // Walks the carts, but only when metrics are scraped
+    private double estimateBytes() {
+        long bytes = 0;
+        for (Cart cart : carts.values()) {
+            bytes += CartLines.estimateHeapBytes(cart);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,331 @@
+package com.example.jewellery_backend.service;
+
+import com.example.jewellery_backend.Cart;
+import com.example.jewellery_backend.CartItem;
+import com.example.jewellery_backend.util.CartMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cart storage in cart_header / cart_items, for running several backend nodes without sticky sessions.
+ *
+ * Reads are answered from a local cache; a miss (or an entry older than the TTL) loads the cart
+ * from the database. Writes go to the cache at once and to the database write-behind: only the
+ * latest state of each changed cart is kept, and all changed carts are written on the next flush
+ * in one transaction of batched statements. If that transaction fails, each cart is retried in
+ * its own, so one bad cart cannot hold back the rest; a cart whose data keeps being rejected is
+ * given up after cart.store.jdbc.max-flush-attempts. Lines for products deleted meanwhile are skipped.
+ *
+ * A flush writes only the lines that changed since the cart was last read or written: changed
+ * lines are upserted and removed lines deleted, so lines another node added or changed meanwhile
+ * are left alone and show up here once the cached copy is older than the TTL. Two nodes changing
+ * the same line keep the last quantity written. Lines without a variant are stored with
+ * attribute_value_id 0, so the (cart, product, variant) unique key also applies to them.
+ *
+ * The cache is bounded by cart.store.max-live-carts (least recently loaded carts go first, never
+ * unflushed ones) and expired on a {@link CartExpiryWheel}. Carts untouched in the database for
+ * longer than the retention period are purged in small batches.
+ */
+@Component
+@ConditionalOnProperty(name = "cart.store.type", havingValue = "jdbc")
+public class JdbcCartStore implements CartStore {
+
+    private static final String UPSERT_HEADER =
+            "INSERT INTO cart_header (session_id) VALUES (?) ON DUPLICATE KEY UPDATE updated_at = CURRENT_TIMESTAMP";
+    // Joins products so a line whose product was deleted is dropped instead of failing the foreign key
+    private static final String UPSERT_ITEM =
+            "INSERT INTO cart_items (cart_header_id, product_id, attribute_value_id, quantity) " +
+            "SELECT ch.cart_header_id, p.product_id, ?, ? FROM cart_header ch " +
+            "JOIN products p ON p.product_id = ? WHERE ch.session_id = ? " +
+            "ON DUPLICATE KEY UPDATE quantity = ?";
+    private static final String DELETE_ITEM =
+            "DELETE ci FROM cart_items ci JOIN cart_header ch ON ch.cart_header_id = ci.cart_header_id " +
+            "WHERE ch.session_id = ? AND ci.product_id = ? AND ci.attribute_value_id = ?";
+    // attribute_value_id of a line without a variant
+    private static final long NO_VARIANT = 0L;
+    private static final int PURGE_BATCH_SIZE = 1000;
+    private static final String PURGE_BATCH =
+            "DELETE FROM cart_header WHERE updated_at < ? LIMIT " + PURGE_BATCH_SIZE;
+    private static final String SELECT_ITEMS =
+            "SELECT ci.product_id, ci.attribute_value_id, ci.quantity FROM cart_items ci " +
+            "JOIN cart_header ch ON ch.cart_header_id = ci.cart_header_id " +
+            "WHERE ch.session_id = ? ORDER BY ci.cart_item_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductService productService;
+    private final long cacheTtlMs;
+    private final long retentionMs;
+    private final int maxLiveCarts;
+    private final int maxFlushAttempts;
+    private final CartExpiryWheel wheel;
+
+    private final Map<String, Cached> cache = new ConcurrentHashMap<>();
+    // cart id -> latest snapshot not yet written
+    private final Map<String, Cart> dirty = new ConcurrentHashMap<>();
+    // cart id -> lines as last read from or written to the database, by item key
+    private final Map<String, Map<String, CartLines.Line>> persisted = new ConcurrentHashMap<>();
+    // cart id -> flushes failed in a row; only touched inside flush()
+    private final Map<String, Integer> failedFlushes = new HashMap<>();
+
+    private final Counter expired;
+    private final Counter evicted;
+    private final Counter purged;
+
+    public JdbcCartStore(JdbcTemplate jdbcTemplate,
+                         PlatformTransactionManager transactionManager,
+                         ProductService productService,
+                         MeterRegistry meterRegistry,
+                         @Value("${cart.store.jdbc.cache-ttl-ms:30000}") long cacheTtlMs,
+                         @Value("${cart.store.jdbc.retention-ms:2592000000}") long retentionMs,
+                         @Value("${cart.store.sweep-interval-ms:60000}") long sweepIntervalMs,
+                         @Value("${cart.store.max-live-carts:50000}") int maxLiveCarts,
+                         @Value("${cart.store.jdbc.max-flush-attempts:5}") int maxFlushAttempts) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.productService = productService;
+        this.cacheTtlMs = cacheTtlMs;
+        this.retentionMs = retentionMs;
+        this.maxLiveCarts = Math.max(1, maxLiveCarts);
+        this.maxFlushAttempts = Math.max(1, maxFlushAttempts);
+        this.wheel = new CartExpiryWheel(cacheTtlMs, sweepIntervalMs);
+
+        this.expired = Counter.builder("cart.store.evictions")
+                .tag("store", "jdbc").tag("reason", "ttl")
+                .description("Cached carts dropped after the cache TTL")
+                .register(meterRegistry);
+        this.evicted = Counter.builder("cart.store.evictions")
+                .tag("store", "jdbc").tag("reason", "capacity")
+                .description("Cached carts dropped to stay under the live cart cap")
+                .register(meterRegistry);
+        this.purged = Counter.builder("cart.store.evictions")
+                .tag("store", "jdbc").tag("reason", "retention")
+                .description("Abandoned carts deleted from cart_header")
+                .register(meterRegistry);
+        Gauge.builder("cart.store.live", cache, Map::size)
+                .tag("store", "jdbc")
+                .description("Carts currently cached on this node")
+                .register(meterRegistry);
+        Gauge.builder("cart.store.memory.estimate", this, JdbcCartStore::estimateBytes)
+                .tag("store", "jdbc")
+                .baseUnit("bytes")
+                .description("Approximate heap used by the cached carts")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Cart load(String cartId) {
+        long now = System.currentTimeMillis();
+        Cached cached = cache.get(cartId);
+        // Unflushed carts must come from the cache, whatever their age
+        if (cached != null && (now - cached.loadedAt < cacheTtlMs || dirty.containsKey(cartId))) {
+            return cached.cart;
+        }
+        List<CartLines.Line> lines = read(cartId);
+        Cart cart = CartLines.toCart(lines, productService);
+        persisted.put(cartId, byItemKey(lines));
+        cache.put(cartId, new Cached(cart, now));
+        wheel.touch(cartId);
+        enforceCap();
+        return cart;
+    }
+
+    @Override
+    public void save(String cartId, Cart cart) {
+        Cart snapshot;
+        synchronized (cart) {
+            snapshot = cart.copy();
+        }
+        cache.put(cartId, new Cached(cart, System.currentTimeMillis()));
+        // Replaces any snapshot still waiting, so a burst of changes is written once
+        dirty.put(cartId, snapshot);
+        wheel.touch(cartId);
+        enforceCap();
+    }
+
+    @Scheduled(fixedDelayString = "${cart.store.jdbc.flush-interval-ms:500}")
+    @PreDestroy
+    public synchronized void flush() {
+        if (dirty.isEmpty()) return;
+        Map<String, Cart> batch = new LinkedHashMap<>();
+        for (String cartId : new ArrayList<>(dirty.keySet())) {
+            Cart snapshot = dirty.remove(cartId);
+            if (snapshot != null) batch.put(cartId, snapshot);
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> write(batch));
+            batch.forEach((cartId, snapshot) -> {
+                failedFlushes.remove(cartId);
+                persisted.put(cartId, byItemKey(snapshot));
+            });
+        } catch (RuntimeException ex) {
+            // Find the cart(s) at fault by writing each on its own
+            batch.forEach(this::flushOne);
+        }
+    }
+
+    private void flushOne(String cartId, Cart snapshot) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> write(Map.of(cartId, snapshot)));
+            failedFlushes.remove(cartId);
+            persisted.put(cartId, byItemKey(snapshot));
+        } catch (DataIntegrityViolationException ex) {
+            // Something in this cart's data; retrying will not help forever
+            int attempts = failedFlushes.merge(cartId, 1, Integer::sum);
+            if (attempts < maxFlushAttempts) {
+                dirty.putIfAbsent(cartId, snapshot);
+                System.err.println("Warning: cart flush failed (attempt " + attempts + "): " + ex.getMessage());
+            } else {
+                // No longer dirty, so the cache reloads what the database holds once the TTL runs out
+                failedFlushes.remove(cartId);
+                System.err.println("Warning: cart change dropped after " + attempts + " failed flushes: " + ex.getMessage());
+            }
+        } catch (RuntimeException ex) {
+            // Database unreachable or busy: keep the change, however long it takes.
+            // Put it back for the next flush, unless a newer snapshot arrived meanwhile
+            dirty.putIfAbsent(cartId, snapshot);
+            System.err.println("Warning: cart flush failed: " + ex.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cart.store.sweep-interval-ms:60000}")
+    public void sweep() {
+        for (String cartId : wheel.advance()) {
+            if (dirty.containsKey(cartId)) {
+                wheel.touch(cartId); // not written yet; check again next round
+            } else if (!wheel.contains(cartId) && cache.remove(cartId) != null) {
+                persisted.remove(cartId);
+                expired.increment();
+            }
+        }
+    }
+
+    /**
+     * Delete carts not written for longer than the retention period, a batch at a time so the
+     * purge never holds many row locks. Uses the cart_header(updated_at) index.
+     */
+    @Scheduled(fixedDelayString = "${cart.store.jdbc.purge-interval-ms:3600000}")
+    public void purgeAbandoned() {
+        Timestamp cutoff = new Timestamp(System.currentTimeMillis() - retentionMs);
+        try {
+            int deleted;
+            do {
+                deleted = jdbcTemplate.update(PURGE_BATCH, cutoff);
+                purged.increment(deleted);
+            } while (deleted == PURGE_BATCH_SIZE);
+        } catch (RuntimeException ex) {
+            System.err.println("Warning: purging abandoned carts failed: " + ex.getMessage());
+        }
+    }
+
+    private void enforceCap() {
+        int attempts = cache.size();
+        while (cache.size() > maxLiveCarts && attempts-- > 0) {
+            String victim = wheel.pollOldest();
+            if (victim == null) return;
+            if (dirty.containsKey(victim)) {
+                wheel.touch(victim); // unflushed carts stay until written
+            } else if (cache.remove(victim) != null) {
+                persisted.remove(victim);
+                evicted.increment();
+            }
+        }
+    }
+
+    // Walks the cache, but only when metrics are scraped
+    private double estimateBytes() {
+        long bytes = 0;
+        for (Cached c : cache.values()) {
+            bytes += CartLines.estimateHeapBytes(c.cart);
+        }
+        return bytes;
+    }
+
+    // Upserts the lines that differ from what the database last held and deletes the removed ones
+    private void write(Map<String, Cart> batch) {
+        List<Object[]> headers = new ArrayList<>();
+        List<Object[]> upserts = new ArrayList<>();
+        List<Object[]> deletes = new ArrayList<>();
+        batch.forEach((cartId, cart) -> {
+            Map<String, CartLines.Line> before = persisted.getOrDefault(cartId, Map.of());
+            Map<String, CartLines.Line> after = byItemKey(cart);
+            int upsertsBefore = upserts.size();
+            after.forEach((key, line) -> {
+                CartLines.Line old = before.get(key);
+                if (old == null || !old.getQuantity().equals(line.getQuantity())) {
+                    upserts.add(new Object[]{variant(line), line.getQuantity(), line.getProductId(), cartId, line.getQuantity()});
+                }
+            });
+            before.forEach((key, line) -> {
+                if (!after.containsKey(key)) {
+                    deletes.add(new Object[]{cartId, line.getProductId(), variant(line)});
+                }
+            });
+            if (upserts.size() > upsertsBefore) {
+                headers.add(new Object[]{cartId});
+            }
+        });
+
+        if (!headers.isEmpty()) {
+            // Also keeps the header clear of the retention purge
+            jdbcTemplate.batchUpdate(UPSERT_HEADER, headers);
+        }
+        if (!upserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_ITEM, upserts);
+        }
+        if (!deletes.isEmpty()) {
+            jdbcTemplate.batchUpdate(DELETE_ITEM, deletes);
+        }
+    }
+
+    private List<CartLines.Line> read(String cartId) {
+        return jdbcTemplate.query(SELECT_ITEMS, (rs, n) -> {
+            long variant = rs.getLong(2);
+            return new CartLines.Line(rs.getLong(1), variant == NO_VARIANT ? null : variant, rs.getInt(3));
+        }, cartId);
+    }
+
+    private static Map<String, CartLines.Line> byItemKey(List<CartLines.Line> lines) {
+        Map<String, CartLines.Line> byKey = new HashMap<>();
+        for (CartLines.Line line : lines) {
+            byKey.put(CartMapper.makeItemKey(line.getProductId(), line.getAttributeValueId()), line);
+        }
+        return byKey;
+    }
+
+    private static Map<String, CartLines.Line> byItemKey(Cart cart) {
+        List<CartLines.Line> lines = new ArrayList<>();
+        for (CartItem it : cart.getItemList()) {
+            lines.add(new CartLines.Line(it.getProductId(), it.getAttributeValueId(), it.getQuantity()));
+        }
+        return byItemKey(lines);
+    }
+
+    private static long variant(CartLines.Line line) {
+        return line.getAttributeValueId() != null ? line.getAttributeValueId() : NO_VARIANT;
+    }
+
+    private static final class Cached {
+        final Cart cart;
+        final long loadedAt;
+
+        Cached(Cart cart, long loadedAt) {
+            this.cart = cart;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.jewellery_backend.service;
+
+import com.example.jewellery_backend.Cart;
+import com.example.jewellery_backend.CartItem;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * Carts kept outside the Java heap, for very large numbers of small anonymous carts.
+ *
+ * One fixed-size slot per cart in a single direct buffer, or a memory-mapped file when
+ * cart.store.offheap.file is set. Only the lines are stored (product, variant, quantity);
+ * the heap holds just the cart id -> slot index. Names, images and prices are filled in on load.
+ * Idle carts are expired by a {@link CartExpiryWheel}; when every slot is taken the least
+ * recently used cart gives up its slot.
+ *
+ * Slot layout: [int lineCount] then per line [long productId][long attributeValueId][int quantity].
+ */
+@Component
+@ConditionalOnProperty(name = "cart.store.type", havingValue = "offheap")
+public class OffHeapCartStore implements CartStore {
+
+    private static final int HEADER_BYTES = Integer.BYTES;
+    private static final int LINE_BYTES = Long.BYTES + Long.BYTES + Integer.BYTES;
+    private static final long NO_VARIANT = -1L;
+    private static final int LOCK_STRIPES = 64;
+
+    private final ProductService productService;
+    private final int maxLines;
+    private final int slotBytes;
+    private final ByteBuffer slab;
+    private final CartExpiryWheel wheel;
+
+    private final Map<String, Integer> slotByCart = new ConcurrentHashMap<>();
+    private final Deque<Integer> freeSlots = new ConcurrentLinkedDeque<>();
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    private final Counter expired;
+    private final Counter evicted;
+
+    public OffHeapCartStore(ProductService productService,
+                            MeterRegistry meterRegistry,
+                            @Value("${cart.store.ttl-ms:1800000}") long ttlMs,
+                            @Value("${cart.store.sweep-interval-ms:60000}") long sweepIntervalMs,
+                            @Value("${cart.store.offheap.max-carts:100000}") int maxCarts,
+                            @Value("${cart.store.offheap.max-lines:20}") int maxLines,
+                            @Value("${cart.store.offheap.file:}") String file) {
+        this.productService = productService;
+        this.maxLines = maxLines;
+        this.slotBytes = HEADER_BYTES + maxLines * LINE_BYTES;
+        this.wheel = new CartExpiryWheel(ttlMs, sweepIntervalMs);
+
+        long capacity = (long) maxCarts * slotBytes;
+        if (capacity > Integer.MAX_VALUE) {
+            throw new IllegalStateException("cart.store.offheap: " + maxCarts + " carts x " + slotBytes
+                    + " bytes exceeds the 2 GB a single buffer can address");
+        }
+        this.slab = allocate((int) capacity, file);
+        for (int slot = 0; slot < maxCarts; slot++) {
+            freeSlots.add(slot);
+        }
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+
+        this.expired = Counter.builder("cart.store.evictions")
+                .tag("store", "offheap").tag("reason", "ttl")
+                .description("Carts dropped after being idle longer than the TTL")
+                .register(meterRegistry);
+        this.evicted = Counter.builder("cart.store.evictions")
+                .tag("store", "offheap").tag("reason", "capacity")
+                .description("Least recently used carts dropped because every slot was taken")
+                .register(meterRegistry);
+        Gauge.builder("cart.store.live", slotByCart, Map::size)
+                .tag("store", "offheap")
+                .description("Carts currently held")
+                .register(meterRegistry);
+        Gauge.builder("cart.store.memory.estimate", slotByCart, m -> (double) m.size() * slotBytes)
+                .tag("store", "offheap")
+                .baseUnit("bytes")
+                .description("Off-heap bytes used by the held carts' slots")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Cart load(String cartId) {
+        Integer slot = slotByCart.get(cartId);
+        if (slot == null) return Cart.builder().build();
+
+        List<CartLines.Line> lines = new ArrayList<>();
+        synchronized (lock(slot)) {
+            // The slot may have been freed and handed to another cart since the lookup
+            if (!slot.equals(slotByCart.get(cartId))) return Cart.builder().build();
+            int base = slot * slotBytes;
+            int count = slab.getInt(base);
+            for (int i = 0; i < count; i++) {
+                int at = base + HEADER_BYTES + i * LINE_BYTES;
+                long variant = slab.getLong(at + Long.BYTES);
+                lines.add(new CartLines.Line(slab.getLong(at),
+                        variant == NO_VARIANT ? null : variant,
+                        slab.getInt(at + 2 * Long.BYTES)));
+            }
+        }
+        wheel.touch(cartId);
+        return CartLines.toCart(lines, productService);
+    }
+
+    @Override
+    public void save(String cartId, Cart cart) {
+        List<CartItem> items;
+        synchronized (cart) {
+            items = cart.getItemList();
+        }
+        if (items.isEmpty()) {
+            Integer slot = slotByCart.get(cartId);
+            if (slot != null) release(cartId, slot);
+            return;
+        }
+        if (items.size() > maxLines) {
+            throw new IllegalArgumentException("A cart can hold at most " + maxLines + " different items");
+        }
+
+        while (true) {
+            if (!slotByCart.containsKey(cartId) && freeSlots.isEmpty()) {
+                evictOldest();
+            }
+            int slot = slotByCart.computeIfAbsent(cartId, k -> {
+                Integer free = freeSlots.poll();
+                if (free == null) throw new IllegalStateException("Cart store is full, try again later");
+                return free;
+            });
+            synchronized (lock(slot)) {
+                // Freed between the lookup and the lock: take a fresh slot
+                if (!Integer.valueOf(slot).equals(slotByCart.get(cartId))) continue;
+                write(slot, items);
+            }
+            wheel.touch(cartId);
+            return;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cart.store.sweep-interval-ms:60000}")
+    public void sweep() {
+        for (String cartId : wheel.advance()) {
+            Integer slot = slotByCart.get(cartId);
+            // Skip carts touched again since the bucket was drained
+            if (slot != null && !wheel.contains(cartId) && release(cartId, slot)) expired.increment();
+        }
+    }
+
+    private void evictOldest() {
+        String victim = wheel.pollOldest();
+        if (victim == null) return;
+        Integer slot = slotByCart.get(victim);
+        if (slot != null && release(victim, slot)) evicted.increment();
+    }
+
+    // Caller holds the slot's lock
+    private void write(int slot, List<CartItem> items) {
+        int base = slot * slotBytes;
+        slab.putInt(base, items.size());
+        for (int i = 0; i < items.size(); i++) {
+            CartItem it = items.get(i);
+            int at = base + HEADER_BYTES + i * LINE_BYTES;
+            slab.putLong(at, it.getProductId());
+            slab.putLong(at + Long.BYTES, it.getAttributeValueId() == null ? NO_VARIANT : it.getAttributeValueId());
+            slab.putInt(at + 2 * Long.BYTES, it.getQuantity());
+        }
+    }
+
+    private boolean release(String cartId, int slot) {
+        synchronized (lock(slot)) {
+            if (!slotByCart.remove(cartId, slot)) return false;
+            slab.putInt(slot * slotBytes, 0);
+            freeSlots.add(slot);
+        }
+        wheel.remove(cartId);
+        return true;
+    }
+
+    private Object lock(int slot) {
+        return locks[slot % LOCK_STRIPES];
+    }
+
+    private static ByteBuffer allocate(int capacity, String file) {
+        if (file == null || file.isBlank()) {
+            return ByteBuffer.allocateDirect(capacity);
+        }
+        // Carts are not recovered from the file after a restart; it only lets the OS page cold slots out
+        try (FileChannel channel = FileChannel.open(Path.of(file), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not map cart store file " + file, ex);
+        }
+    }
+}
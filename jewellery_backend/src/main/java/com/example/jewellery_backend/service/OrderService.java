@@ -1,27 +1,36 @@
 package com.example.jewellery_backend.service;
-import com.example.jewellery_backend.repository.OrderStatusTypeRepository;
-import com.example.jewellery_backend.repository.PaymentStatusTypeRepository;
 import com.example.jewellery_backend.dto.OrderRequestDto;
 import com.example.jewellery_backend.entity.*;
-import com.example.jewellery_backend.exception.InsufficientStockException;
 import com.example.jewellery_backend.exception.ResourceNotFoundException;
 import com.example.jewellery_backend.repository.*;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 import lombok.RequiredArgsConstructor;
 import com.example.jewellery_backend.Cart;
 import com.example.jewellery_backend.CartItem;
 import com.example.jewellery_backend.service.ProductService;
-import jakarta.servlet.http.HttpSession;
 import org.springframework.util.StringUtils;
 import java.util.Objects;
+import com.example.jewellery_backend.dto.OrderItemResponseDto;
 import com.example.jewellery_backend.dto.OrderResponseDto;
 import com.example.jewellery_backend.util.Mapper;
 import java.util.stream.Collectors;
 
 
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -29,165 +38,106 @@ import java.util.*;
 @RequiredArgsConstructor
 public class OrderService {
 
+    private static final int MAX_ORDER_PAGE_SIZE = 100;
+    private static final Set<String> SORTABLE_ORDER_PROPERTIES =
+            Set.of("createdAt", "orderId", "totalAmount", "userEmail", "userName");
+
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
     private final ProductRepository productRepository;
     private final SlipRepository slipRepository;
     private final FileStorageService fileStorageService;
-    private final OrderStatusTypeRepository orderStatusTypeRepository;
-    private final PaymentStatusTypeRepository paymentStatusTypeRepository;
+    private final OrderStatusRegistry orderStatusRegistry;
     private final ProductService productService;
+    private final StockReservationService stockReservationService;
+    private final CartStore cartStore;
 
 
-    @Transactional
-    public Order createOrderFromSessionCart(OrderRequestDto customerDetails, MultipartFile slipFile, HttpSession session) {
-        // Bypasses session cart due to persistence issues. Creates order with details + slip only.
-        // We assume the statuses 'pending' exist in the database from previous SQL fixes.
+    // ---------------- Create Order (Checkout) ----------------
 
-        // 1. Validate inputs
+    /**
+     * Turn the shopper's cart into an order with its payment slip.
+     * Stock for all lines is reserved in one set-based step after the order and its slip file are
+     * written, so no stock row is locked during file I/O; the cart is emptied only once the order has committed. READ COMMITTED lets the striped stock
+     * claim try several stripes without keeping the ones it could not use locked.
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public Order createOrderFromCart(OrderRequestDto customerDetails, MultipartFile slipFile, String cartId) {
+        // 1. Validate inputs and get the cart
         if (slipFile == null || slipFile.isEmpty()) {
             throw new IllegalArgumentException("Payment slip is required.");
         }
         if (customerDetails == null) {
             throw new IllegalArgumentException("Customer details are required.");
         }
-
-        // 2. Create Order entity and set customer details
-        Order order = Order.builder()
-                .userName(customerDetails.getCustomerName())
-                .userEmail(customerDetails.getCustomerEmail())
-                .userAddress(customerDetails.getCustomerAddress())
-                .telephoneNumber(customerDetails.getTelephoneNumber())
-                .orderItems(new ArrayList<>()) // Initialize as empty list
-                .slips(new ArrayList<>())
-                // Set dummy totals since we are skipping the cart
-                .subtotal(BigDecimal.ZERO)
-                .totalAmount(BigDecimal.ZERO)
-                .taxAmount(BigDecimal.ZERO)
-                .shippingAmount(BigDecimal.ZERO)
-                .discountAmount(BigDecimal.ZERO)
-                .currency("LKR")
-                .build();
-
-        // 3. Fetch default statuses and save Order
-        OrderStatusType pendingOrderStatus = orderStatusTypeRepository.findByOrderStatusName(OrderStatusType.OrderStatus.pending)
-                .orElseThrow(() -> new IllegalStateException("Default 'pending' order status not found in database! Please run SQL to add it."));
-        order.setOrderStatus(pendingOrderStatus);
-
-        PaymentStatusType pendingPaymentStatus = paymentStatusTypeRepository.findByPaymentStatusName(PaymentStatusType.PaymentStatus.pending)
-                .orElseThrow(() -> new IllegalStateException("Default 'pending' payment status not found in database! Please run SQL to add it."));
-        order.setPaymentStatus(pendingPaymentStatus);
-
-        Order savedOrder = orderRepository.save(order); // Save Order first
-
-        // 4. Store Slip file and create Slip entity
-        String subdir = "slips/order_" + savedOrder.getOrderId();
-        String relativePath = fileStorageService.storeFile(slipFile, subdir);
-
-        Slip slip = Slip.builder()
-                .order(savedOrder)
-                .fileName(StringUtils.cleanPath(Objects.requireNonNull(slipFile.getOriginalFilename())))
-                .filePath(relativePath)
-                .fileType(slipFile.getContentType())
-                .fileSize(slipFile.getSize())
-                .paymentStatus(pendingPaymentStatus) // Link to pending status
-                .verified(false)
-                .build();
-
-        Slip savedSlip = slipRepository.save(slip);
-        savedOrder.getSlips().add(savedSlip); // Link slip back to order
-
-        System.out.println("DEMO FIX: Created Order ID " + savedOrder.getOrderId() + " without using session cart.");
-
-        return savedOrder;
-    }
-
-    /*
-    // ---------------- Create Order (Admin or Checkout) ----------------
-    @Transactional
-    public Order createOrderFromSessionCart(OrderRequestDto customerDetails, MultipartFile slipFile, HttpSession session) {
-        // 1. Get Cart from Session
-        Cart cart = (Cart) session.getAttribute(Cart.SESSION_ATTRIBUTE);
-        if (cart == null || cart.getItemList() == null || cart.getItemList().isEmpty()) {
-            throw new IllegalArgumentException("Cannot create order with an empty cart.");
+        Cart cart = cartStore.load(cartId);
+        List<CartItem> cartItems;
+        synchronized (cart) {
+            cartItems = cart.getItemList();
         }
-        if (slipFile == null || slipFile.isEmpty()) {
-            throw new IllegalArgumentException("Payment slip is required.");
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (CartItem cartItem : cartItems) {
+            if (cartItem.getQuantity() != null && cartItem.getQuantity() > 0) {
+                quantities.merge(cartItem.getProductId(), cartItem.getQuantity(), Integer::sum);
+            }
+        }
+        if (quantities.isEmpty()) {
+            throw new IllegalArgumentException("Cannot create order with an empty cart.");
         }
 
-        // 2. Create Order entity and set customer details
+        // 2. Order items at current prices, priced in one batch
+        Map<Long, BigDecimal> prices = productService.getUpdatedPrices(quantities.keySet());
+        // One SELECT for all lines; the response needs the product names after the transaction ends
+        Map<Long, Product> products = productRepository.findAllById(quantities.keySet()).stream()
+                .collect(Collectors.toMap(Product::getProductId, p -> p));
         Order order = Order.builder()
                 .userName(customerDetails.getCustomerName())
                 .userEmail(customerDetails.getCustomerEmail())
                 .userAddress(customerDetails.getCustomerAddress())
                 .telephoneNumber(customerDetails.getTelephoneNumber())
-                // createdAt/updatedAt handled by @PrePersist/@PreUpdate
-                .orderItems(new ArrayList<>()) // Initialize collections
+                .orderItems(new ArrayList<>())
                 .slips(new ArrayList<>())
+                .currency("LKR")
                 .build();
 
+        List<OrderItem> orderItems = new ArrayList<>();
         BigDecimal subTotal = BigDecimal.ZERO;
-        List<OrderItem> orderItemsTransient = new ArrayList<>();
-
-        // 3. Process Cart Items -> OrderItems (and update stock)
-        for (com.example.jewellery_backend.CartItem cartItem : cart.getItemList()) {
-            Product product = productRepository.findById(cartItem.getProductId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Product not found in cart with id: " + cartItem.getProductId()));
-
-            int qty = cartItem.getQuantity();
-            if (qty <= 0) continue; // Skip invalid items
-
-            if (product.getStockQuantity() < qty) {
-                throw new InsufficientStockException("Insufficient stock for product id " + product.getProductId() + " (" + product.getProductName() + ")");
-            }
-
-            // Decrement stock
-            product.setStockQuantity(product.getStockQuantity() - qty);
-            productRepository.save(product);
-            BigDecimal unitPrice = productService.getUpdatedPrice(product.getProductId());
-
+        for (CartItem cartItem : cartItems) {
+            if (cartItem.getQuantity() == null || cartItem.getQuantity() <= 0) continue;
             OrderItem orderItem = OrderItem.builder()
-                    .product(product)
-                    .quantity(qty)
-                    .unitPrice(unitPrice) // Use calculated price
-                    // .order(order) // Set after order is saved
+                    .product(products.get(cartItem.getProductId()))
+                    .quantity(cartItem.getQuantity())
+                    .unitPrice(prices.get(cartItem.getProductId()))
                     .build();
-            orderItem.calculateTotalPrice(); // Calculate total based on unitPrice and quantity
-
-            orderItemsTransient.add(orderItem);
+            orderItem.calculateTotalPrice();
+            orderItems.add(orderItem);
             subTotal = subTotal.add(orderItem.getTotalPrice());
         }
 
-        // 4. Set totals, FETCH default statuses, and save Order
-        order.setOrderItems(new ArrayList<>()); // Initialize collection
+        // 3. Totals and default statuses, then save the order header
         order.setSubtotal(subTotal);
-        order.setTaxAmount(BigDecimal.ZERO); // Example
-        order.setShippingAmount(BigDecimal.ZERO); // Example
-        order.setDiscountAmount(BigDecimal.ZERO); // Example
-        order.setTotalAmount(subTotal.add(order.getTaxAmount()).add(order.getShippingAmount()).subtract(order.getDiscountAmount()));
-
-        // Fetch the 'pending' OrderStatusType from the database
-        OrderStatusType pendingOrderStatus = orderStatusTypeRepository.findByOrderStatusName(OrderStatusType.OrderStatus.pending)
-                .orElseThrow(() -> new IllegalStateException("Default 'pending' order status not found in database!"));
-        order.setOrderStatus(pendingOrderStatus); // Assign the fetched entity
-
-        // Fetch the 'pending' PaymentStatusType from the database
-        PaymentStatusType pendingPaymentStatus = paymentStatusTypeRepository.findByPaymentStatusName(PaymentStatusType.PaymentStatus.pending)
-                .orElseThrow(() -> new IllegalStateException("Default 'pending' payment status not found in database!"));
-        order.setPaymentStatus(pendingPaymentStatus); // Assign the fetched entity
-
-        Order savedOrder = orderRepository.save(order); // Save Order first
-
-        // 5. Link and save OrderItems
-        for (OrderItem item : orderItemsTransient) {
-            item.setOrder(savedOrder); // Link to saved order
-            orderItemRepository.save(item); // Save item
-            savedOrder.getOrderItems().add(item); // Add to managed collection
-        }
+        order.setTaxAmount(BigDecimal.ZERO);
+        order.setShippingAmount(BigDecimal.ZERO);
+        order.setDiscountAmount(BigDecimal.ZERO);
+        order.setTotalAmount(subTotal);
+
+        order.setOrderStatus(orderStatusRegistry.orderStatus(OrderStatusType.OrderStatus.pending));
+        PaymentStatusType pendingPaymentStatus = orderStatusRegistry.paymentStatus(PaymentStatusType.PaymentStatus.pending);
+        order.setPaymentStatus(pendingPaymentStatus);
 
-        // 6. Store Slip file and create Slip entity
+        Order savedOrder = orderRepository.save(order);
+
+        // 4. Store Slip file and create Slip entity; a rolled-back checkout removes the file again
         String subdir = "slips/order_" + savedOrder.getOrderId();
         String relativePath = fileStorageService.storeFile(slipFile, subdir);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    fileStorageService.delete(relativePath);
+                }
+            }
+        });
 
         Slip slip = Slip.builder()
                 .order(savedOrder)
@@ -197,17 +147,30 @@ public class OrderService {
                 .fileSize(slipFile.getSize())
                 .paymentStatus(pendingPaymentStatus) // Link to pending status
                 .verified(false)
-                // uploadedAt handled by @Builder.Default
                 .build();
 
         Slip savedSlip = slipRepository.save(slip);
-        savedOrder.getSlips().add(savedSlip);
+        savedOrder.getSlips().add(savedSlip); // Link slip back to order
 
-        // 7. Clear the session cart
-        session.removeAttribute(Cart.SESSION_ATTRIBUTE);
+        // 5. Take every line out of stock at once (reports all short lines together), last, so the
+        // stock rows stay locked only until the commit. The items are inserted after it: their foreign
+        // key check share-locks the product rows, which would deadlock against a later stock update.
+        stockReservationService.reserve(quantities);
+        orderItems.forEach(savedOrder::addOrderItem);
+
+        // 6. Empty the cart once the order is committed; a rolled-back checkout keeps it
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                synchronized (cart) {
+                    cart.clear();
+                }
+                cartStore.save(cartId, cart);
+            }
+        });
 
         return savedOrder;
-    }*/
+    }
 
 
 
@@ -251,9 +214,7 @@ public class OrderService {
                 // uploadedAt handled by @Builder.Default
                 .verified(false) // Default to not verified
                 .build();
-        PaymentStatusType initialPaymentStatus = paymentStatusTypeRepository.findByPaymentStatusName(PaymentStatusType.PaymentStatus.pending)
-                .orElseThrow(() -> new IllegalStateException("Default 'pending' payment status not found!"));
-        slip.setPaymentStatus(initialPaymentStatus);
+        slip.setPaymentStatus(orderStatusRegistry.paymentStatus(PaymentStatusType.PaymentStatus.pending));
 
         Slip savedSlip = slipRepository.save(slip);
 
@@ -263,10 +224,7 @@ public class OrderService {
             order.setSlips(new ArrayList<>());
         }
         order.getSlips().add(savedSlip);
-        // Fetch the 'processing' OrderStatusType from the database
-        OrderStatusType processingOrderStatus = orderStatusTypeRepository.findByOrderStatusName(OrderStatusType.OrderStatus.processing)
-                .orElseThrow(() -> new IllegalStateException("'processing' order status not found in database!"));
-        order.setOrderStatus(processingOrderStatus); // Assign the fetched entity
+        order.setOrderStatus(orderStatusRegistry.orderStatus(OrderStatusType.OrderStatus.processing));
         orderRepository.save(order);
 
         return savedSlip;
@@ -302,9 +260,7 @@ public class OrderService {
             slipRepository.delete(existing); // Delete from DB
 
             // Optionally revert order status if slip deletion means order goes back to pending
-            OrderStatusType pendingOrderStatus = orderStatusTypeRepository.findByOrderStatusName(OrderStatusType.OrderStatus.pending)
-                    .orElseThrow(() -> new IllegalStateException("Default 'pending' order status not found!"));
-            order.setOrderStatus(pendingOrderStatus);
+            order.setOrderStatus(orderStatusRegistry.orderStatus(OrderStatusType.OrderStatus.pending));
             orderRepository.save(order); // Save updated order status
 
         } else {
@@ -320,13 +276,118 @@ public class OrderService {
 
     // ---------------- Order Retrieval & Update ----------------
 
+    /**
+     * One page of orders for the admin list. Every filter is optional and runs in SQL:
+     * order and payment status, created date range (both days inclusive) and an email prefix.
+     * Sort is "property" or "property,asc|desc" over {@link #SORTABLE_ORDER_PROPERTIES}.
+     * Items and slips come from the order read model ({@link #toResponseDtos}), for this page only.
+     */
     @Transactional(readOnly = true)
-    public List<OrderResponseDto> listAllOrders() {
-        List<Order> orders = orderRepository.findAll();
-        // Map to DTOs *inside* the transactional method
-        return orders.stream()
-                .map(Mapper::toOrderResponseDto)
-                .collect(Collectors.toList());
+    public Page<OrderResponseDto> listOrders(OrderStatusType.OrderStatus status,
+                                             PaymentStatusType.PaymentStatus paymentStatus,
+                                             LocalDate from, LocalDate to, String email,
+                                             int page, int size, String sort) {
+        Pageable pageable = PageRequest.of(Math.max(0, page), Math.max(1, Math.min(size, MAX_ORDER_PAGE_SIZE)), parseSort(sort));
+        Page<Order> orders = orderRepository.findAll(orderSpecification(status, paymentStatus, from, to, email), pageable);
+        return new PageImpl<>(toResponseDtos(orders.getContent()), orders.getPageable(), orders.getTotalElements());
+    }
+
+    /**
+     * One order as a response, read the same way as the list.
+     */
+    @Transactional(readOnly = true)
+    public OrderResponseDto getOrderResponse(Long orderId) {
+        return toResponseDtos(List.of(getOrder(orderId))).get(0);
+    }
+
+    /**
+     * Order read model: responses for already loaded orders in a fixed number of queries, however
+     * many orders there are. One query for item rows with product names, one for each order's first
+     * slip; statuses come from the registry. Only the columns the response shows are read, and the
+     * orders' lazy collections, statuses and products are never touched.
+     */
+    private List<OrderResponseDto> toResponseDtos(List<Order> orders) {
+        if (orders.isEmpty()) return List.of();
+        List<Long> orderIds = orders.stream().map(Order::getOrderId).collect(Collectors.toList());
+
+        Map<Long, List<OrderItemResponseDto>> itemsByOrder = new HashMap<>();
+        for (Object[] row : orderItemRepository.findItemRowsByOrderIds(orderIds)) {
+            String productName = row[3] != null ? (String) row[3] : "Product Not Found";
+            itemsByOrder.computeIfAbsent((Long) row[0], k -> new ArrayList<>()).add(new OrderItemResponseDto(
+                    (Long) row[1], (Long) row[2], productName, (BigDecimal) row[4], (Integer) row[5], (BigDecimal) row[6]));
+        }
+        Map<Long, Object[]> slipByOrder = new HashMap<>();
+        for (Object[] row : slipRepository.findFirstSlipRowsByOrderIds(orderIds)) {
+            slipByOrder.put((Long) row[0], row);
+        }
+
+        List<OrderResponseDto> dtos = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            Object[] slip = slipByOrder.get(order.getOrderId());
+            OrderResponseDto dto = Mapper.toOrderResponseDto(order,
+                    itemsByOrder.getOrDefault(order.getOrderId(), List.of()),
+                    slip != null ? (String) slip[1] : null,
+                    slip != null ? (String) slip[2] : null);
+            dto.setOrderStatusType(orderStatusRegistry.loaded(order.getOrderStatus()));
+            dto.setPaymentStatus(orderStatusRegistry.loaded(order.getPaymentStatus()));
+            dtos.add(dto);
+        }
+        return dtos;
+    }
+
+    private Specification<Order> orderSpecification(OrderStatusType.OrderStatus status,
+                                                    PaymentStatusType.PaymentStatus paymentStatus,
+                                                    LocalDate from, LocalDate to, String email) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (status != null) {
+                predicates.add(cb.equal(root.get("orderStatus").get("orderStatusName"), status));
+            }
+            if (paymentStatus != null) {
+                predicates.add(cb.equal(root.get("paymentStatus").get("paymentStatusName"), paymentStatus));
+            }
+            // Half-open range on created_at so idx_orders_created_at serves it
+            if (from != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("createdAt"), from.atStartOfDay()));
+            }
+            if (to != null) {
+                predicates.add(cb.lessThan(root.get("createdAt"), to.plusDays(1).atStartOfDay()));
+            }
+            // Prefix match keeps idx_orders_email usable; the column collation makes it case-insensitive
+            if (StringUtils.hasText(email)) {
+                String escaped = email.trim().replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+                predicates.add(cb.like(root.get("userEmail"), escaped + "%", '\\'));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    // Whitelisted property plus order id as tie-breaker, so pages are stable
+    private static Sort parseSort(String sort) {
+        if (!StringUtils.hasText(sort)) {
+            return Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("orderId"));
+        }
+        String[] parts = sort.split(",");
+        String property = parts[0].trim();
+        if (!SORTABLE_ORDER_PROPERTIES.contains(property) || parts.length > 2) {
+            throw new IllegalArgumentException("Unsupported sort: " + sort + " (use one of " + SORTABLE_ORDER_PROPERTIES + ", optionally ',asc' or ',desc')");
+        }
+        Sort.Direction direction = parts.length == 2
+                ? Sort.Direction.fromString(parts[1].trim())
+                : Sort.Direction.ASC;
+        Sort result = Sort.by(direction, property);
+        return property.equals("orderId") ? result : result.and(Sort.by(direction, "orderId"));
+    }
+
+    /**
+     * Response for an order whose items and slips are already in memory, such as one just created.
+     * The statuses come from the registry, so the order can be mapped after its transaction has ended.
+     */
+    public OrderResponseDto toResponseDto(Order order) {
+        OrderResponseDto dto = Mapper.toOrderResponseDto(order);
+        dto.setOrderStatusType(orderStatusRegistry.loaded(order.getOrderStatus()));
+        dto.setPaymentStatus(orderStatusRegistry.loaded(order.getPaymentStatus()));
+        return dto;
     }
 
     @Transactional(readOnly = true)
@@ -343,9 +404,7 @@ public class OrderService {
         if (orderStatusStr != null && !orderStatusStr.isBlank()) {
             try {
                 OrderStatusType.OrderStatus osEnum = OrderStatusType.OrderStatus.valueOf(orderStatusStr.toLowerCase());
-                OrderStatusType statusType = orderStatusTypeRepository.findByOrderStatusName(osEnum)
-                        .orElseThrow(() -> new IllegalArgumentException("Order status type not found: " + orderStatusStr));
-                order.setOrderStatus(statusType);
+                order.setOrderStatus(orderStatusRegistry.orderStatus(osEnum));
             } catch (IllegalArgumentException e) {
                 throw new IllegalArgumentException("Invalid order status: " + orderStatusStr, e);
             }
@@ -355,8 +414,7 @@ public class OrderService {
         if (paymentStatusStr != null && !paymentStatusStr.isBlank()) {
             try {
                 PaymentStatusType.PaymentStatus psEnum = PaymentStatusType.PaymentStatus.valueOf(paymentStatusStr.toLowerCase());
-                PaymentStatusType paymentStatus = paymentStatusTypeRepository.findByPaymentStatusName(psEnum)
-                        .orElseThrow(() -> new IllegalArgumentException("Payment status type not found: " + paymentStatusStr));
+                PaymentStatusType paymentStatus = orderStatusRegistry.paymentStatus(psEnum);
                 order.setPaymentStatus(paymentStatus);
 
                 // Update associated Slip status and verification
@@ -372,7 +430,7 @@ public class OrderService {
                     }
                     // Update slip status if payment moves to refunded/failed
                     else if ((psEnum == PaymentStatusType.PaymentStatus.refunded || psEnum == PaymentStatusType.PaymentStatus.failed)
-                            && !slip.getPaymentStatus().getPaymentStatusName().equals(psEnum)) {
+                            && orderStatusRegistry.loaded(slip.getPaymentStatus()).getPaymentStatusName() != psEnum) {
                         slip.setPaymentStatus(paymentStatus);
                         // Optionally un-verify if logic requires it
                         // if (psEnum == PaymentStatusType.PaymentStatus.refunded && Boolean.TRUE.equals(slip.getVerified())) {
@@ -396,11 +454,12 @@ public class OrderService {
     }
 
 
-    @Transactional
+    // READ COMMITTED so the restock sees stripes created after the order was read
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public Order cancelOrder(Long orderId) {
         Order order = getOrder(orderId);
 
-        OrderStatusType currentStatus = order.getOrderStatus();
+        OrderStatusType currentStatus = orderStatusRegistry.loaded(order.getOrderStatus());
         if (currentStatus == null) {
             throw new IllegalStateException("Order status is null for order ID: " + orderId);
         }
@@ -417,27 +476,18 @@ public class OrderService {
             throw new IllegalArgumentException("Cannot cancel order with status: " + currentStatus.getOrderStatusName());
         }
 
-        // Restock products
+        // Restock products in one set-based update (products deleted meanwhile are skipped)
         if (order.getOrderItems() != null) {
+            Map<Long, Integer> restock = new HashMap<>();
             for (OrderItem item : order.getOrderItems()) {
-                if (item != null && item.getProduct() != null) {
-                    // Use findById for better error handling if product deleted concurrently
-                    Optional<Product> pOpt = productRepository.findById(item.getProduct().getProductId());
-                    if (pOpt.isPresent()) {
-                        Product p = pOpt.get();
-                        p.setStockQuantity(p.getStockQuantity() + item.getQuantity());
-                        // Let transaction manage saving
-                    } else {
-                        System.err.println("Warning: Product ID " + item.getProduct().getProductId() + " not found during restocking for cancelled order ID " + orderId);
-                    }
+                if (item != null && item.getProduct() != null && item.getQuantity() != null) {
+                    restock.merge(item.getProduct().getProductId(), item.getQuantity(), Integer::sum);
                 }
             }
+            stockReservationService.release(restock);
         }
 
-        // Fetch and set 'cancelled' status
-        OrderStatusType cancelledOrderStatus = orderStatusTypeRepository.findByOrderStatusName(OrderStatusType.OrderStatus.cancelled)
-                .orElseThrow(() -> new IllegalStateException("'cancelled' order status not found!"));
-        order.setOrderStatus(cancelledOrderStatus);
+        order.setOrderStatus(orderStatusRegistry.orderStatus(OrderStatusType.OrderStatus.cancelled));
 
         // Transaction commit will save order status and product stock changes
         return order; // Return the order in its cancelled state
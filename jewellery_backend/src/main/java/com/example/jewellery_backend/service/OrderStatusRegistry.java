@@ -0,0 +1,109 @@
+package com.example.jewellery_backend.service;
+
+import com.example.jewellery_backend.entity.OrderStatusType;
+import com.example.jewellery_backend.entity.PaymentStatusType;
+import com.example.jewellery_backend.repository.OrderStatusTypeRepository;
+import com.example.jewellery_backend.repository.PaymentStatusTypeRepository;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Ids of the order_status_types and payment_status_types rows, loaded once at startup.
+ *
+ * These tables are static seed data, so order writes take a getReferenceById proxy from here
+ * instead of looking the row up by name every time: setting a status costs no query.
+ * Startup fails if a status the checkout, slip or cancel flow writes on its own is missing.
+ * Other statuses are optional; asking for one that has no row is an IllegalArgumentException.
+ * If the seed ran twice and a name has several rows, the lowest id wins.
+ */
+@Component
+public class OrderStatusRegistry implements InitializingBean {
+
+    // Written by OrderService without admin input, so they must exist
+    private static final Set<OrderStatusType.OrderStatus> REQUIRED_ORDER_STATUSES = EnumSet.of(
+            OrderStatusType.OrderStatus.pending,
+            OrderStatusType.OrderStatus.processing,
+            OrderStatusType.OrderStatus.cancelled);
+    private static final Set<PaymentStatusType.PaymentStatus> REQUIRED_PAYMENT_STATUSES = EnumSet.of(
+            PaymentStatusType.PaymentStatus.pending);
+
+    private final OrderStatusTypeRepository orderStatusTypeRepository;
+    private final PaymentStatusTypeRepository paymentStatusTypeRepository;
+
+    private final Map<OrderStatusType.OrderStatus, OrderStatusType> orderStatuses =
+            new EnumMap<>(OrderStatusType.OrderStatus.class);
+    private final Map<PaymentStatusType.PaymentStatus, PaymentStatusType> paymentStatuses =
+            new EnumMap<>(PaymentStatusType.PaymentStatus.class);
+    // id -> loaded row, to answer reads of lazy status proxies without a session
+    private final Map<Long, OrderStatusType> orderStatusById = new HashMap<>();
+    private final Map<Long, PaymentStatusType> paymentStatusById = new HashMap<>();
+
+    public OrderStatusRegistry(OrderStatusTypeRepository orderStatusTypeRepository,
+                               PaymentStatusTypeRepository paymentStatusTypeRepository) {
+        this.orderStatusTypeRepository = orderStatusTypeRepository;
+        this.paymentStatusTypeRepository = paymentStatusTypeRepository;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        List<OrderStatusType> orderRows = new ArrayList<>(orderStatusTypeRepository.findAll());
+        orderRows.sort(Comparator.comparing(OrderStatusType::getOrderStatusId));
+        for (OrderStatusType row : orderRows) {
+            orderStatusById.put(row.getOrderStatusId(), row);
+            if (row.getOrderStatusName() != null) orderStatuses.putIfAbsent(row.getOrderStatusName(), row);
+        }
+        List<PaymentStatusType> paymentRows = new ArrayList<>(paymentStatusTypeRepository.findAll());
+        paymentRows.sort(Comparator.comparing(PaymentStatusType::getPaymentStatusId));
+        for (PaymentStatusType row : paymentRows) {
+            paymentStatusById.put(row.getPaymentStatusId(), row);
+            if (row.getPaymentStatusName() != null) paymentStatuses.putIfAbsent(row.getPaymentStatusName(), row);
+        }
+
+        Set<String> missing = new TreeSet<>();
+        REQUIRED_ORDER_STATUSES.stream().filter(s -> !orderStatuses.containsKey(s))
+                .forEach(s -> missing.add("order_status_types." + s));
+        REQUIRED_PAYMENT_STATUSES.stream().filter(s -> !paymentStatuses.containsKey(s))
+                .forEach(s -> missing.add("payment_status_types." + s));
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("Status rows missing from the database: " + missing
+                    + ". Please run the status inserts from db connection.sql.");
+        }
+    }
+
+    /**
+     * Reference to the order status row, for assigning to an order inside a transaction. No query.
+     */
+    public OrderStatusType orderStatus(OrderStatusType.OrderStatus status) {
+        OrderStatusType row = orderStatuses.get(status);
+        if (row == null) {
+            throw new IllegalArgumentException("Order status type not found: " + status);
+        }
+        return orderStatusTypeRepository.getReferenceById(row.getOrderStatusId());
+    }
+
+    /**
+     * Reference to the payment status row, for assigning to an order or slip inside a transaction. No query.
+     */
+    public PaymentStatusType paymentStatus(PaymentStatusType.PaymentStatus status) {
+        PaymentStatusType row = paymentStatuses.get(status);
+        if (row == null) {
+            throw new IllegalArgumentException("Payment status type not found: " + status);
+        }
+        return paymentStatusTypeRepository.getReferenceById(row.getPaymentStatusId());
+    }
+
+    /**
+     * The loaded row behind a (possibly uninitialized) status proxy, safe to read outside a transaction.
+     */
+    public OrderStatusType loaded(OrderStatusType status) {
+        if (status == null) return null;
+        return orderStatusById.getOrDefault(status.getOrderStatusId(), status);
+    }
+
+    public PaymentStatusType loaded(PaymentStatusType status) {
+        if (status == null) return null;
+        return paymentStatusById.getOrDefault(status.getPaymentStatusId(), status);
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.jewellery_backend.service;
+
+import com.example.jewellery_backend.dto.ProductDto;
+import com.example.jewellery_backend.event.GoldRateChangedEvent;
+import com.example.jewellery_backend.event.ProductChangedEvent;
+import com.example.jewellery_backend.event.ProductStockChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Bounded LRU cache of fully assembled product detail responses, keyed by product id.
+ *
+ * Entries are dropped after a product write or stock change commits ({@link ProductChangedEvent},
+ * {@link ProductStockChangedEvent}) and the whole cache is cleared when a new gold rate is
+ * swapped in, since every price depends on it. Writes made on other nodes arrive as the same
+ * events through {@link CatalogChangeFeed}, within one poll interval.
+ * A generation number guards against a slow load putting back data that was invalidated
+ * while it was being built.
+ */
+@Component
+public class ProductDetailCache {
+
+    private final int maxSize;
+    private final Map<Long, ProductDto> entries;
+    private long generation;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public ProductDetailCache(@Value("${product.detail-cache.max-size:1000}") int maxSize,
+                              MeterRegistry meterRegistry) {
+        this.maxSize = Math.max(1, maxSize);
+        this.evictions = Counter.builder("product.detail.cache.evictions")
+                .description("Entries dropped because the cache was full")
+                .register(meterRegistry);
+        this.hits = Counter.builder("product.detail.cache.requests")
+                .tag("result", "hit")
+                .description("Product detail lookups served from the cache")
+                .register(meterRegistry);
+        this.misses = Counter.builder("product.detail.cache.requests")
+                .tag("result", "miss")
+                .description("Product detail lookups that had to be built from the database")
+                .register(meterRegistry);
+        // Access-ordered so the eldest entry is the least recently used one
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, ProductDto> eldest) {
+                if (size() > ProductDetailCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        Gauge.builder("product.detail.cache.size", this, ProductDetailCache::size)
+                .description("Number of cached product detail responses")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Cached detail for the id, or the loader's result (which is then cached).
+     * The loader runs outside the lock; exceptions (e.g. not found) are passed through and nothing is cached.
+     */
+    public ProductDto getOrLoad(Long id, Function<Long, ProductDto> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            ProductDto cached = entries.get(id);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+            loadGeneration = generation;
+        }
+        misses.increment();
+        ProductDto loaded = loader.apply(id);
+        synchronized (this) {
+            if (loaded != null && loadGeneration == generation) {
+                entries.put(id, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    public synchronized void evict(Long id) {
+        generation++;
+        entries.remove(id);
+    }
+
+    public synchronized void clear() {
+        generation++;
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    // fallbackExecution: also evict when the write ran without a transaction
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        evict(event.getProductId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductStockChanged(ProductStockChangedEvent event) {
+        event.getProductIds().forEach(this::evict);
+    }
+
+    @EventListener
+    public void onGoldRateChanged(GoldRateChangedEvent event) {
+        clear();
+    }
+}
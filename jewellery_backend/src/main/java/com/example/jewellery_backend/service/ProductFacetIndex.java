@@ -0,0 +1,460 @@
+package com.example.jewellery_backend.service;
+
+import com.example.jewellery_backend.dto.Filter.FilterRequest;
+import com.example.jewellery_backend.event.ProductChangedEvent;
+import com.example.jewellery_backend.event.ProductsRepricedEvent;
+import com.example.jewellery_backend.repository.ProductAttributeValueRepository;
+import com.example.jewellery_backend.repository.ProductCategoryRepository;
+import com.example.jewellery_backend.repository.ProductRepository;
+import lombok.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory index answering product filter requests without SQL.
+ *
+ * Every product gets a slot number, assigned in productId order. The index keeps one bitmap
+ * of slots per category id and per attribute value id, and the filter prices sorted ascending
+ * so a price range is two binary searches. A filter is then a few bitmap ORs and ANDs, and only
+ * the final page of ids goes to the database.
+ *
+ * Built at startup, updated per product after each committed product write, re-priced after
+ * the repricing job runs and fully rebuilt on a schedule as a safety net for rows written by
+ * SQL. Requests it cannot answer (index not built yet, names instead of ids) return empty so
+ * the caller falls back to the SQL filter. With product.facet-index.enabled=false the index is
+ * never built: every filter runs in SQL and pages come without facet counts.
+ */
+@Component
+public class ProductFacetIndex {
+
+    private final ProductRepository productRepository;
+    private final ProductCategoryRepository productCategoryRepository;
+    private final ProductAttributeValueRepository productAttributeValueRepository;
+    private final CategoryTree categoryTree;
+    private final boolean enabled;
+
+    // Readers share the lock; writers swap or mutate the state under the write lock.
+    // Writers are also synchronized on this, so database reads for an update never interleave.
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private State state;
+
+    public ProductFacetIndex(ProductRepository productRepository,
+                             ProductCategoryRepository productCategoryRepository,
+                             ProductAttributeValueRepository productAttributeValueRepository,
+                             CategoryTree categoryTree,
+                             @org.springframework.beans.factory.annotation.Value("${product.facet-index.enabled:true}") boolean enabled) {
+        this.productRepository = productRepository;
+        this.productCategoryRepository = productCategoryRepository;
+        this.productAttributeValueRepository = productAttributeValueRepository;
+        this.categoryTree = categoryTree;
+        this.enabled = enabled;
+    }
+
+    /**
+     * One page of matching product ids, newest (highest id) first, with the total match count.
+     * Empty when the index cannot answer the request and the SQL filter has to be used.
+     */
+    public Optional<Page<Long>> findIds(FilterRequest request, Pageable pageable) {
+        lock.readLock().lock();
+        try {
+            if (state == null) return Optional.empty();
+            Criteria criteria = Criteria.parse(request);
+            if (criteria == null) return Optional.empty();
+
+            BitSet matched = state.match(criteria);
+            List<Long> ids = new ArrayList<>(pageable.getPageSize());
+            long toSkip = pageable.getOffset();
+            for (int slot = matched.previousSetBit(matched.length() - 1);
+                 slot >= 0 && ids.size() < pageable.getPageSize();
+                 slot = matched.previousSetBit(slot - 1)) {
+                if (toSkip > 0) {
+                    toSkip--;
+                    continue;
+                }
+                ids.add(state.productIdBySlot.get(slot));
+            }
+            return Optional.of(new PageImpl<>(ids, pageable, matched.cardinality()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Match counts per category and per attribute value for the request, each computed under
+     * all the other active filters (disjunctive faceting). A category counts the products of
+     * its whole subtree. Counting is bitmap intersection
+     * over the filtered set, no per-value query. Empty when the index cannot answer the request.
+     */
+    public Optional<FacetCounts> countFacets(FilterRequest request) {
+        lock.readLock().lock();
+        try {
+            if (state == null) return Optional.empty();
+            Criteria criteria = Criteria.parse(request);
+            if (criteria == null) return Optional.empty();
+            return Optional.of(state.countFacets(criteria, categoryTree));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return state != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ---------------- Maintenance ----------------
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${product.facet-index.rebuild-interval-ms:600000}",
+            initialDelayString = "${product.facet-index.rebuild-interval-ms:600000}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    /**
+     * Load the whole index from the database (three scalar queries) and swap it in.
+     * On failure the previous index, if any, stays in place.
+     */
+    public synchronized void rebuild() {
+        if (!enabled) return;
+        State next;
+        try {
+            next = new State();
+            for (Object[] row : productRepository.findAllFilterPrices()) {
+                next.addProduct((Long) row[0], (BigDecimal) row[1]);
+            }
+            for (Object[] row : productCategoryRepository.findAllLinkIds()) {
+                Integer slot = next.slotByProductId.get((Long) row[0]);
+                if (slot != null) next.set(next.byCategory, (Long) row[1], slot);
+            }
+            for (Object[] row : productAttributeValueRepository.findAllLinkIds()) {
+                Integer slot = next.slotByProductId.get((Long) row[0]);
+                if (slot != null) next.setValue((Long) row[1], (Long) row[2], slot);
+            }
+            next.sortPrices();
+        } catch (RuntimeException ex) {
+            System.err.println("Warning: product facet index rebuild failed: " + ex.getMessage());
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            state = next;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        try {
+            refreshProduct(event.getProductId());
+        } catch (RuntimeException ex) {
+            // The scheduled rebuild corrects the index later
+            System.err.println("Warning: facet index update for product " + event.getProductId() + " failed: " + ex.getMessage());
+        }
+    }
+
+    @EventListener
+    public void onProductsRepriced(ProductsRepricedEvent event) {
+        try {
+            reloadPrices();
+        } catch (RuntimeException ex) {
+            System.err.println("Warning: facet index price reload failed: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Re-read one product's price, categories and attribute values and replace its slot's bits.
+     */
+    public synchronized void refreshProduct(Long productId) {
+        if (productId == null || !isReady()) return; // the startup build will include it
+
+        List<Object[]> priceRow = productRepository.findFilterPriceByProductId(productId);
+        boolean exists = !priceRow.isEmpty();
+        List<Long> categoryIds = exists ? productCategoryRepository.findCategoryIdsByProductId(productId) : List.of();
+        List<Object[]> valueRows = exists ? productAttributeValueRepository.findValueIdsByProductId(productId) : List.of();
+
+        boolean needsRebuild = false;
+        lock.writeLock().lock();
+        try {
+            Integer slot = state.slotByProductId.get(productId);
+            if (slot != null) {
+                state.clearSlot(slot);
+            }
+            if (exists) {
+                if (slot == null) {
+                    // Slots must stay in productId order; an id below the highest one means a full rebuild
+                    needsRebuild = productId < state.maxProductId;
+                    if (!needsRebuild) slot = state.addProduct(productId, (BigDecimal) priceRow.get(0)[1]);
+                } else {
+                    state.live.set(slot);
+                    state.priceBySlot.set(slot, (BigDecimal) priceRow.get(0)[1]);
+                }
+                if (slot != null) {
+                    for (Long categoryId : categoryIds) state.set(state.byCategory, categoryId, slot);
+                    for (Object[] row : valueRows) state.setValue((Long) row[0], (Long) row[1], slot);
+                }
+            }
+            state.sortPrices();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (needsRebuild) rebuild();
+    }
+
+    /**
+     * Re-read every filter price (after a bulk reprice) and re-sort the price array.
+     */
+    public synchronized void reloadPrices() {
+        if (!isReady()) return;
+        List<Object[]> rows = productRepository.findAllFilterPrices();
+        lock.writeLock().lock();
+        try {
+            for (Object[] row : rows) {
+                Integer slot = state.slotByProductId.get((Long) row[0]);
+                if (slot != null) state.priceBySlot.set(slot, (BigDecimal) row[1]);
+            }
+            state.sortPrices();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Raw facet counts by id: category id -> count, and attribute id -> (value id -> count).
+     */
+    @Value
+    public static class FacetCounts {
+        Map<Long, Integer> categoryCounts;
+        Map<Long, Map<Long, Integer>> valueCountsByAttributeId;
+    }
+
+    // ---------------- Internals ----------------
+
+    /**
+     * A filter request reduced to ids. Null from parse when it uses names the index cannot resolve.
+     */
+    private static final class Criteria {
+        BigDecimal minPrice;
+        BigDecimal maxPrice;
+        Set<Long> categoryIds = Collections.emptySet();
+        // (attribute id, accepted value ids) clauses: OR within a clause, AND across clauses
+        List<Map.Entry<Long, Set<Long>>> attributeClauses = new ArrayList<>();
+
+        static Criteria parse(FilterRequest request) {
+            Criteria c = new Criteria();
+            // Same conversion as the SQL filter so both compare identical values
+            if (request.getMinPrice() != null) c.minPrice = BigDecimal.valueOf(request.getMinPrice());
+            if (request.getMaxPrice() != null) c.maxPrice = BigDecimal.valueOf(request.getMaxPrice());
+            if (request.getCategoryIds() != null && !request.getCategoryIds().isEmpty()) {
+                c.categoryIds = new HashSet<>(request.getCategoryIds());
+            }
+            if (request.getAttributes() != null) {
+                for (Map.Entry<String, List<String>> entry : request.getAttributes().entrySet()) {
+                    List<String> values = entry.getValue();
+                    if (values == null || values.isEmpty()) continue;
+                    Long attributeId = parseId(entry.getKey(), false);
+                    if (attributeId == null) return null;
+                    Set<Long> valueIds = new HashSet<>();
+                    for (String v : values) {
+                        if (v == null) continue;
+                        Long valueId = parseId(v, true);
+                        if (valueId == null) return null;
+                        valueIds.add(valueId);
+                    }
+                    c.attributeClauses.add(Map.entry(attributeId, valueIds));
+                }
+            }
+            return c;
+        }
+
+        // Keys are parsed as-is and values trimmed, exactly like the SQL filter does
+        private static Long parseId(String s, boolean trim) {
+            if (s == null) return null;
+            try {
+                return Long.parseLong(trim ? s.trim() : s);
+            } catch (NumberFormatException ex) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Mutable index data; only touched under the lock.
+     */
+    private static final class State {
+        final Map<Long, Integer> slotByProductId = new HashMap<>();
+        final List<Long> productIdBySlot = new ArrayList<>();
+        final List<BigDecimal> priceBySlot = new ArrayList<>();
+        final BitSet live = new BitSet();
+        final Map<Long, BitSet> byCategory = new HashMap<>();
+        final Map<Long, BitSet> byValue = new HashMap<>();
+        final Map<Long, Long> attributeIdByValueId = new HashMap<>();
+        long maxProductId;
+
+        // Live slots with a price, ordered by price, and those prices in the same order
+        int[] slotsByPrice = new int[0];
+        BigDecimal[] sortedPrices = new BigDecimal[0];
+
+        int addProduct(Long productId, BigDecimal price) {
+            int slot = productIdBySlot.size();
+            productIdBySlot.add(productId);
+            priceBySlot.add(price);
+            slotByProductId.put(productId, slot);
+            live.set(slot);
+            maxProductId = Math.max(maxProductId, productId);
+            return slot;
+        }
+
+        void set(Map<Long, BitSet> facet, Long key, int slot) {
+            facet.computeIfAbsent(key, k -> new BitSet()).set(slot);
+        }
+
+        void setValue(Long valueId, Long attributeId, int slot) {
+            set(byValue, valueId, slot);
+            attributeIdByValueId.put(valueId, attributeId);
+        }
+
+        void clearSlot(int slot) {
+            live.clear(slot);
+            priceBySlot.set(slot, null);
+            byCategory.values().forEach(bits -> bits.clear(slot));
+            byValue.values().forEach(bits -> bits.clear(slot));
+        }
+
+        void sortPrices() {
+            slotsByPrice = live.stream()
+                    .filter(slot -> priceBySlot.get(slot) != null)
+                    .boxed()
+                    .sorted(Comparator.comparing(priceBySlot::get))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            sortedPrices = new BigDecimal[slotsByPrice.length];
+            for (int i = 0; i < slotsByPrice.length; i++) {
+                sortedPrices[i] = priceBySlot.get(slotsByPrice[i]);
+            }
+        }
+
+        BitSet match(Criteria criteria) {
+            BitSet result = (BitSet) live.clone();
+            if (criteria.minPrice != null || criteria.maxPrice != null) {
+                result.and(priceRange(criteria.minPrice, criteria.maxPrice));
+            }
+            if (!criteria.categoryIds.isEmpty()) {
+                result.and(union(byCategory, criteria.categoryIds));
+            }
+            for (Map.Entry<Long, Set<Long>> entry : criteria.attributeClauses) {
+                result.and(valuesOf(entry.getKey(), entry.getValue()));
+            }
+            return result;
+        }
+
+        FacetCounts countFacets(Criteria criteria, CategoryTree tree) {
+            BitSet priced = (BitSet) live.clone();
+            if (criteria.minPrice != null || criteria.maxPrice != null) {
+                priced.and(priceRange(criteria.minPrice, criteria.maxPrice));
+            }
+            BitSet inCategories = criteria.categoryIds.isEmpty() ? null : union(byCategory, criteria.categoryIds);
+            List<BitSet> clauseBits = new ArrayList<>();
+            for (Map.Entry<Long, Set<Long>> clause : criteria.attributeClauses) {
+                clauseBits.add(valuesOf(clause.getKey(), clause.getValue()));
+            }
+
+            // Categories: everything except the category filter
+            BitSet categoryBase = (BitSet) priced.clone();
+            clauseBits.forEach(categoryBase::and);
+            Map<Long, Integer> categoryCounts = new TreeMap<>();
+            for (CategoryTree.Node node : tree.allNodes()) {
+                BitSet subtree = union(byCategory, tree.descendantIds(node.getCategoryId()));
+                categoryCounts.put(node.getCategoryId(), intersectionSize(categoryBase, subtree));
+            }
+
+            // Attributes: everything except that attribute's own clauses
+            Map<Long, List<Long>> valueIdsByAttribute = new TreeMap<>();
+            attributeIdByValueId.forEach((valueId, attributeId) ->
+                    valueIdsByAttribute.computeIfAbsent(attributeId, k -> new ArrayList<>()).add(valueId));
+            Map<Long, Map<Long, Integer>> valueCounts = new TreeMap<>();
+            valueIdsByAttribute.forEach((attributeId, valueIds) -> {
+                BitSet base = (BitSet) priced.clone();
+                if (inCategories != null) base.and(inCategories);
+                for (int i = 0; i < clauseBits.size(); i++) {
+                    if (!criteria.attributeClauses.get(i).getKey().equals(attributeId)) base.and(clauseBits.get(i));
+                }
+                Map<Long, Integer> counts = new TreeMap<>();
+                for (Long valueId : valueIds) {
+                    counts.put(valueId, intersectionSize(base, byValue.get(valueId)));
+                }
+                valueCounts.put(attributeId, counts);
+            });
+            return new FacetCounts(categoryCounts, valueCounts);
+        }
+
+        static int intersectionSize(BitSet a, BitSet b) {
+            if (b == null) return 0;
+            BitSet both = (BitSet) a.clone();
+            both.and(b);
+            return both.cardinality();
+        }
+
+        // Products having any of the values, counting only values that belong to the attribute
+        BitSet valuesOf(Long attributeId, Set<Long> valueIds) {
+            BitSet bits = new BitSet();
+            for (Long valueId : valueIds) {
+                if (!attributeId.equals(attributeIdByValueId.get(valueId))) continue;
+                BitSet valueBits = byValue.get(valueId);
+                if (valueBits != null) bits.or(valueBits);
+            }
+            return bits;
+        }
+
+        static BitSet union(Map<Long, BitSet> facet, Collection<Long> keys) {
+            BitSet bits = new BitSet();
+            for (Long key : keys) {
+                BitSet keyBits = facet.get(key);
+                if (keyBits != null) bits.or(keyBits);
+            }
+            return bits;
+        }
+
+        BitSet priceRange(BigDecimal min, BigDecimal max) {
+            int from = min == null ? 0 : firstIndex(min, false);
+            int to = max == null ? sortedPrices.length : firstIndex(max, true);
+            BitSet bits = new BitSet();
+            for (int i = from; i < to; i++) {
+                bits.set(slotsByPrice[i]);
+            }
+            return bits;
+        }
+
+        // First index whose price is >= bound (or > bound when strict)
+        private int firstIndex(BigDecimal bound, boolean strict) {
+            int lo = 0, hi = sortedPrices.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                int cmp = sortedPrices[mid].compareTo(bound);
+                if (cmp < 0 || (strict && cmp == 0)) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+    }
+}
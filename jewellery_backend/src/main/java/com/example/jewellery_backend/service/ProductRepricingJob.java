@@ -0,0 +1,70 @@
+package com.example.jewellery_backend.service;
+
+import com.example.jewellery_backend.event.GoldRateChangedEvent;
+import com.example.jewellery_backend.event.ProductsRepricedEvent;
+import com.example.jewellery_backend.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+
+/**
+ * Background job that keeps products.current_price in step with the gold rate.
+ *
+ * Runs whenever a new rate is swapped into {@link GoldRateSnapshot} and reprices the
+ * catalog with one bulk UPDATE per product-id range instead of loading entities.
+ * Rows already priced at the given rate are skipped, so re-running is cheap.
+ */
+@Component
+public class ProductRepricingJob {
+
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+
+    public ProductRepricingJob(ProductRepository productRepository,
+                               ApplicationEventPublisher eventPublisher,
+                               @Value("${product.repricing.chunk-size:1000}") int chunkSize) {
+        this.productRepository = productRepository;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    @Async
+    @EventListener
+    public void onGoldRateChanged(GoldRateChangedEvent event) {
+        try {
+            repriceAll(event.getHistoryId(), event.getRate());
+        } catch (RuntimeException ex) {
+            // Reads fall back to calculating the price until the next run succeeds
+            System.err.println("Warning: repricing for gold rate " + event.getHistoryId() + " failed: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Reprice every product against the given rate in chunked bulk updates.
+     * Each chunk commits on its own so long runs never hold locks on the whole table.
+     *
+     * @return number of product rows updated
+     */
+    public synchronized int repriceAll(Long rateId, BigDecimal rate) {
+        if (rateId == null || rate == null) return 0;
+
+        Long minId = productRepository.findMinProductId();
+        Long maxId = productRepository.findMaxProductId();
+        if (minId == null || maxId == null) return 0;
+
+        int updated = 0;
+        for (long fromId = minId; fromId <= maxId; fromId += chunkSize) {
+            long toId = fromId + chunkSize - 1;
+            updated += productRepository.repriceRange(fromId, toId, rate, rateId);
+        }
+        if (updated > 0) {
+            eventPublisher.publishEvent(new ProductsRepricedEvent(rateId, updated));
+        }
+        return updated;
+    }
+}
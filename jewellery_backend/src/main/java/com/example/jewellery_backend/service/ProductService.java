@@ -3,10 +3,17 @@ package com.example.jewellery_backend.service;
 
 import com.example.jewellery_backend.dto.CreateUpdateProductRequest;
 import com.example.jewellery_backend.dto.ProductDto;
+import com.example.jewellery_backend.dto.ProductPageDto;
+import com.example.jewellery_backend.dto.ProductSummary;
+import com.example.jewellery_backend.dto.ProductSummaryPageDto;
 import com.example.jewellery_backend.entity.Product;
 
+import org.springframework.data.domain.Page;
+
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface ProductService {
@@ -15,14 +22,29 @@ public interface ProductService {
     void deleteProduct(Long id);
     ProductDto getProductById(Long id);
     List<ProductDto> getAllProducts();
-    List<ProductDto> getProductsByCategoryId(Long categoryId);
+    // One page of active products in the category and its subcategories
+    Page<ProductSummary> getProductsByCategoryId(Long categoryId, int page, int size);
 
     Product saveProduct(Product product);
 
     BigDecimal getUpdatedPrice(Long id);
+
+    // Batch pricing: reads the gold rate once and returns prices keyed by product id
+    Map<Long, BigDecimal> priceAll(Collection<Product> products);
+    Map<Long, BigDecimal> getUpdatedPrices(Collection<Long> ids);
+
     Optional<Product> findById(Long id);
 
     // New method to get only active (public-visible) products
     List<ProductDto> getActiveProducts();
+
+    // Keyset page after the given cursor; featuredFirst orders featured products before the rest
+    ProductPageDto getProductPage(String after, int limit, boolean featuredFirst, boolean activeOnly);
+
+    // Same paging as getProductPage, but slim list-view rows of active products
+    ProductSummaryPageDto getProductSummaryPage(String after, int limit, boolean featuredFirst);
+
+    // Priced summaries for the given ids, in the same order; unknown ids are skipped
+    List<ProductSummary> getProductSummaries(List<Long> ids);
 }
 
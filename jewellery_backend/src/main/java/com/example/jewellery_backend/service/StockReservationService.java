@@ -0,0 +1,191 @@
+package com.example.jewellery_backend.service;
+
+import com.example.jewellery_backend.event.ProductStockChangedEvent;
+import com.example.jewellery_backend.exception.InsufficientStockException;
+import com.example.jewellery_backend.exception.ResourceNotFoundException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Takes order quantities out of products.stock_quantity (and puts them back) in set-based statements.
+ *
+ * A reservation first locks all product rows with one SELECT ... FOR UPDATE in ascending
+ * product_id order, so concurrent checkouts always lock in the same order and cannot deadlock.
+ * Short lines are reported together. The decrement itself is a single UPDATE joined to the
+ * requested quantities, guarded by stock_quantity >= qty, so stock can never go negative even
+ * if the row was changed outside this path. All of it runs in the caller's transaction: a
+ * failure later in checkout rolls the stock back with the order.
+ *
+ * Lines for products striped by {@link StripedStockLedger} are claimed from their stripes instead,
+ * so they never touch the hot product row. Which products are striped is taken from the ledger's
+ * last rebalance and checked against the stripes table once the plain rows are locked, so a
+ * product striped in between is still claimed from its stripes and never sold twice.
+ */
+@Service
+public class StockReservationService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final StripedStockLedger stripedStockLedger;
+
+    public StockReservationService(JdbcTemplate jdbcTemplate,
+                                   ApplicationEventPublisher eventPublisher,
+                                   StripedStockLedger stripedStockLedger) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.stripedStockLedger = stripedStockLedger;
+    }
+
+    /**
+     * Remove the quantities (product id -> quantity) from stock, all or nothing.
+     *
+     * @throws ResourceNotFoundException  if a product does not exist
+     * @throws InsufficientStockException listing every line the stock cannot cover
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reserve(Map<Long, Integer> quantities) {
+        SortedMap<Long, Integer> lines = normalize(quantities);
+        if (lines.isEmpty()) return;
+        List<InsufficientStockException.Shortage> shortages = new ArrayList<>();
+        claimStriped(takeStriped(lines), lines, shortages);
+        if (lines.isEmpty()) {
+            if (!shortages.isEmpty()) throw new InsufficientStockException(shortages);
+            return; // the rebalance mirrors striped stock into products and publishes the change
+        }
+
+        Map<Long, Object[]> locked = lockRows(lines.keySet());
+        for (Long id : lines.keySet()) {
+            if (!locked.containsKey(id)) {
+                throw new ResourceNotFoundException("Product not found in cart with id: " + id);
+            }
+        }
+        // Striped after the hint was read; with their rows held that can no longer change
+        claimStriped(takeStripedNow(lines), lines, shortages);
+        for (Map.Entry<Long, Integer> line : lines.entrySet()) {
+            Object[] row = locked.get(line.getKey());
+            int available = (Integer) row[1];
+            if (available < line.getValue()) {
+                shortages.add(new InsufficientStockException.Shortage(line.getKey(), (String) row[0], line.getValue(), available));
+            }
+        }
+        if (!shortages.isEmpty()) {
+            throw new InsufficientStockException(shortages);
+        }
+        if (lines.isEmpty()) return;
+
+        int updated = applyDelta(lines, -1);
+        if (updated != lines.size()) {
+            // Only possible if the rows were changed without taking the lock; the caller's transaction rolls back
+            throw new InsufficientStockException("Stock changed during checkout, please try again");
+        }
+        eventPublisher.publishEvent(new ProductStockChangedEvent(Set.copyOf(lines.keySet())));
+    }
+
+    /**
+     * Put the quantities back into stock, e.g. when an order is cancelled. Missing products are skipped.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(Map<Long, Integer> quantities) {
+        SortedMap<Long, Integer> lines = normalize(quantities);
+        if (lines.isEmpty()) return;
+        releaseStriped(takeStriped(lines), lines);
+        if (lines.isEmpty()) return;
+
+        Map<Long, Object[]> locked = lockRows(lines.keySet());
+        lines.keySet().retainAll(locked.keySet());
+        releaseStriped(takeStripedNow(lines), lines);
+        if (lines.isEmpty()) return;
+        applyDelta(lines, +1);
+        eventPublisher.publishEvent(new ProductStockChangedEvent(Set.copyOf(lines.keySet())));
+    }
+
+    // Claims striped lines from their stripes; lines folded back meanwhile go back to the plain lines
+    private void claimStriped(SortedMap<Long, Integer> striped, SortedMap<Long, Integer> lines,
+                              List<InsufficientStockException.Shortage> shortages) {
+        for (Map.Entry<Long, Integer> line : striped.entrySet()) {
+            StripedStockLedger.Claim claim = stripedStockLedger.claim(line.getKey(), line.getValue());
+            if (!claim.isStriped()) {
+                lines.put(line.getKey(), line.getValue()); // folded back meanwhile: plain row it is
+            } else if (!claim.isClaimed()) {
+                shortages.add(new InsufficientStockException.Shortage(line.getKey(), productName(line.getKey()),
+                        line.getValue(), claim.getAvailable()));
+            }
+        }
+    }
+
+    private void releaseStriped(SortedMap<Long, Integer> striped, SortedMap<Long, Integer> lines) {
+        striped.forEach((id, qty) -> {
+            if (!stripedStockLedger.release(id, qty)) lines.put(id, qty);
+        });
+    }
+
+    // Merged per product, positive quantities only, ascending product id
+    private static SortedMap<Long, Integer> normalize(Map<Long, Integer> quantities) {
+        SortedMap<Long, Integer> lines = new TreeMap<>();
+        quantities.forEach((id, qty) -> {
+            if (id != null && qty != null && qty > 0) lines.merge(id, qty, Integer::sum);
+        });
+        return lines;
+    }
+
+    // Moves the lines of products striped at the last rebalance out of lines into the returned map
+    private SortedMap<Long, Integer> takeStriped(SortedMap<Long, Integer> lines) {
+        SortedMap<Long, Integer> striped = new TreeMap<>();
+        for (Long id : lines.keySet()) {
+            if (stripedStockLedger.isStriped(id)) striped.put(id, lines.get(id));
+        }
+        lines.keySet().removeAll(striped.keySet());
+        return striped;
+    }
+
+    // Same, for lines whose product rows this transaction holds, asking the stripes table itself
+    private SortedMap<Long, Integer> takeStripedNow(SortedMap<Long, Integer> lines) {
+        SortedMap<Long, Integer> striped = new TreeMap<>();
+        for (Long id : stripedStockLedger.stripedAmong(lines.keySet())) {
+            striped.put(id, lines.remove(id));
+        }
+        return striped;
+    }
+
+    private String productName(Long productId) {
+        List<String> names = jdbcTemplate.queryForList(
+                "SELECT product_name FROM products WHERE product_id = ?", String.class, productId);
+        return names.isEmpty() ? null : names.get(0);
+    }
+
+    // product id -> [product_name, stock_quantity], rows locked in ascending id order
+    private Map<Long, Object[]> lockRows(Collection<Long> ids) {
+        String in = ids.stream().map(id -> "?").collect(Collectors.joining(", "));
+        Map<Long, Object[]> rows = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT product_id, product_name, stock_quantity FROM products " +
+                "WHERE product_id IN (" + in + ") ORDER BY product_id FOR UPDATE",
+                rs -> {
+                    rows.put(rs.getLong(1), new Object[]{rs.getString(2), rs.getInt(3)});
+                },
+                ids.toArray());
+        return rows;
+    }
+
+    // One UPDATE for all lines: stock_quantity +/- qty, never below zero
+    private int applyDelta(SortedMap<Long, Integer> lines, int sign) {
+        StringBuilder requested = new StringBuilder();
+        List<Object> args = new ArrayList<>();
+        for (Map.Entry<Long, Integer> line : lines.entrySet()) {
+            requested.append(requested.length() == 0 ? "SELECT ? AS product_id, ? AS qty" : " UNION ALL SELECT ?, ?");
+            args.add(line.getKey());
+            args.add(line.getValue());
+        }
+        String sql = "UPDATE products p JOIN (" + requested + ") r ON r.product_id = p.product_id " +
+                (sign < 0
+                        ? "SET p.stock_quantity = p.stock_quantity - r.qty WHERE p.stock_quantity >= r.qty"
+                        : "SET p.stock_quantity = p.stock_quantity + r.qty");
+        return jdbcTemplate.update(sql, args.toArray());
+    }
+}
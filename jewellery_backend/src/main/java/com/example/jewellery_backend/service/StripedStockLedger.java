@@ -0,0 +1,296 @@
+package com.example.jewellery_backend.service;
+
+import com.example.jewellery_backend.event.ProductStockChangedEvent;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Optional striped stock for hot (featured) products, so flash-sale checkouts do not all queue
+ * on the one products.stock_quantity row lock.
+ *
+ * While a product is striped its stock lives in product_stock_stripes, split over N rows.
+ * Under READ COMMITTED a checkout claims from one stripe with a guarded UPDATE, trying the
+ * stripes from a random start, and only falls back to locking every stripe of the product when
+ * no single stripe can cover the line. Under REPEATABLE READ a stripe that is too low would stay
+ * locked after the miss, and walking the stripes from different starts could deadlock, so there
+ * the claim always takes the ordered slow path. Checkout runs READ COMMITTED for this. A background
+ * rebalance evens out stripes that have drifted too far apart (moving units with in-place updates,
+ * and leaving settled products untouched), stripes newly featured products, folds back products
+ * that are no longer featured, and mirrors the sum into products.stock_quantity so every reader
+ * keeps seeing an aggregated stockQuantity (a moment behind during a sale).
+ *
+ * The value last mirrored is stored next to it in products.striped_stock_mirror, written under
+ * the product row lock together with the stripes. The rebalance detects admin stock edits (and
+ * checkouts that took the plain row) by comparing the row with that mirror, so it survives a
+ * restart and every node can run it: nodes rebalancing the same product queue on its row.
+ * The set of striped products each node keeps is only a hint for routing checkouts; see
+ * {@link #stripedAmong(Collection)} for the exact answer.
+ */
+@Component
+public class StripedStockLedger {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final int stripeCount;
+
+    // Products that had stripes at this node's last rebalance
+    private volatile Set<Long> striped = Collections.emptySet();
+
+    public StripedStockLedger(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              ApplicationEventPublisher eventPublisher,
+                              @Value("${stock.striping.enabled:false}") boolean enabled,
+                              @Value("${stock.striping.stripes:8}") int stripeCount) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.stripeCount = Math.max(1, stripeCount);
+    }
+
+    /**
+     * Whether the product had stripes at the last rebalance. May be a moment out of date.
+     */
+    public boolean isStriped(Long productId) {
+        return striped.contains(productId);
+    }
+
+    /**
+     * The products among ids that have stripes right now. The rebalance only stripes or folds back
+     * a product while holding its products row, so the answer is exact while the caller holds those
+     * rows and reads committed data (READ COMMITTED, as checkout and cancel run).
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Set<Long> stripedAmong(Collection<Long> ids) {
+        if (ids.isEmpty() || (!enabled && striped.isEmpty())) return Collections.emptySet();
+        String in = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT DISTINCT product_id FROM product_stock_stripes WHERE product_id IN (" + in + ")",
+                Long.class, ids.toArray()));
+    }
+
+    /**
+     * Take qty from the product's stripes. Runs in the checkout's transaction.
+     * A product whose stripes were folded back meanwhile is reported as not striped.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Claim claim(Long productId, int qty) {
+        // Fast path: one stripe covers the whole line, so only that row is locked.
+        // Only under READ COMMITTED, where InnoDB drops the lock of a stripe the UPDATE did not match.
+        Integer isolation = TransactionSynchronizationManager.getCurrentTransactionIsolationLevel();
+        if (isolation != null && isolation <= Connection.TRANSACTION_READ_COMMITTED) {
+            int start = ThreadLocalRandom.current().nextInt(stripeCount);
+            for (int i = 0; i < stripeCount; i++) {
+                int stripe = (start + i) % stripeCount;
+                int updated = jdbcTemplate.update(
+                        "UPDATE product_stock_stripes SET quantity = quantity - ? " +
+                        "WHERE product_id = ? AND stripe_no = ? AND quantity >= ?",
+                        qty, productId, stripe, qty);
+                if (updated == 1) return new Claim(true, true, qty);
+            }
+        }
+
+        // Slow path: lock all stripes in stripe order and drain them one after another
+        List<int[]> stripes = jdbcTemplate.query(
+                "SELECT stripe_no, quantity FROM product_stock_stripes WHERE product_id = ? " +
+                "ORDER BY stripe_no FOR UPDATE",
+                (rs, n) -> new int[]{rs.getInt(1), rs.getInt(2)},
+                productId);
+        if (stripes.isEmpty()) return new Claim(false, false, 0);
+        int available = stripes.stream().mapToInt(s -> s[1]).sum();
+        if (available < qty) return new Claim(true, false, available);
+
+        int remaining = qty;
+        List<Object[]> takes = new ArrayList<>();
+        for (int[] s : stripes) {
+            if (remaining == 0) break;
+            int take = Math.min(remaining, s[1]);
+            if (take > 0) {
+                takes.add(new Object[]{take, productId, s[0]});
+                remaining -= take;
+            }
+        }
+        jdbcTemplate.batchUpdate(
+                "UPDATE product_stock_stripes SET quantity = quantity - ? WHERE product_id = ? AND stripe_no = ?",
+                takes);
+        return new Claim(true, true, available);
+    }
+
+    /**
+     * Put qty back into one of the product's stripes. Returns false if the product has none.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean release(Long productId, int qty) {
+        int stripe = ThreadLocalRandom.current().nextInt(stripeCount);
+        int updated = jdbcTemplate.update(
+                "UPDATE product_stock_stripes SET quantity = quantity + ? WHERE product_id = ? AND stripe_no = ?",
+                qty, productId, stripe);
+        if (updated == 1) return true;
+        // Fewer stripes than configured (stripe count lowered): any stripe will do
+        return jdbcTemplate.update(
+                "UPDATE product_stock_stripes SET quantity = quantity + ? WHERE product_id = ? " +
+                "ORDER BY stripe_no LIMIT 1",
+                qty, productId) == 1;
+    }
+
+    @Scheduled(fixedDelayString = "${stock.striping.rebalance-interval-ms:1000}")
+    public void rebalance() {
+        Set<Long> hot = enabled
+                ? new HashSet<>(jdbcTemplate.queryForList(
+                        "SELECT product_id FROM products WHERE featured = TRUE AND is_active = TRUE", Long.class))
+                : Collections.emptySet();
+        // Unlocked look at every striped product, to skip the ones with nothing to do
+        Map<Long, StripeSummary> current = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT p.product_id, p.stock_quantity, p.striped_stock_mirror, COUNT(*), SUM(s.quantity), MIN(s.quantity) " +
+                "FROM product_stock_stripes s JOIN products p ON p.product_id = s.product_id " +
+                "GROUP BY p.product_id, p.stock_quantity, p.striped_stock_mirror",
+                rs -> {
+                    current.put(rs.getLong(1), new StripeSummary(rs.getInt(2), rs.getObject(3, Integer.class),
+                            rs.getInt(4), rs.getInt(5), rs.getInt(6)));
+                });
+        if (hot.isEmpty() && current.isEmpty()) {
+            striped = Collections.emptySet();
+            return;
+        }
+
+        Set<Long> all = new TreeSet<>(hot);
+        all.addAll(current.keySet());
+        Set<Long> nowStriped = new HashSet<>();
+        for (Long productId : all) {
+            boolean keep = hot.contains(productId);
+            StripeSummary summary = current.get(productId);
+            if (keep && summary != null && summary.isSettled(stripeCount)) {
+                nowStriped.add(productId);
+                continue;
+            }
+            try {
+                // One short transaction per product, so checkouts on other products never wait on it
+                transactionTemplate.executeWithoutResult(status -> rebalanceOne(productId, keep));
+                if (keep) nowStriped.add(productId);
+            } catch (RuntimeException ex) {
+                if (summary != null) nowStriped.add(productId);
+                System.err.println("Warning: stock rebalance of product " + productId + " failed: " + ex.getMessage());
+            }
+        }
+        striped = Collections.unmodifiableSet(nowStriped);
+    }
+
+    private void rebalanceOne(Long productId, boolean keep) {
+        // Product row first, then its stripes; checkouts never hold a striped product's row
+        List<Integer[]> row = jdbcTemplate.query(
+                "SELECT stock_quantity, striped_stock_mirror FROM products WHERE product_id = ? FOR UPDATE",
+                (rs, n) -> new Integer[]{rs.getInt(1), rs.getObject(2, Integer.class)},
+                productId);
+        if (row.isEmpty()) return;
+        int rowStock = row.get(0)[0];
+        Integer mirrored = row.get(0)[1];
+        List<int[]> stripes = jdbcTemplate.query(
+                "SELECT stripe_no, quantity FROM product_stock_stripes WHERE product_id = ? ORDER BY stripe_no FOR UPDATE",
+                (rs, n) -> new int[]{rs.getInt(1), rs.getInt(2)},
+                productId);
+
+        int total;
+        int sum = stripes.stream().mapToInt(s -> s[1]).sum();
+        if (stripes.isEmpty()) {
+            total = rowStock; // being striped now: the row holds the stock
+        } else {
+            // Row edited since the last mirror (admin update, or a checkout that took the plain path):
+            // apply that change on top of what the stripes hold now
+            total = mirrored == null ? sum : Math.max(0, sum + (rowStock - mirrored));
+        }
+
+        if (!keep) {
+            jdbcTemplate.update("DELETE FROM product_stock_stripes WHERE product_id = ?", productId);
+        } else if (stripes.size() != stripeCount) {
+            // Newly striped, or the stripe count was changed: lay the stripes out afresh
+            jdbcTemplate.update("DELETE FROM product_stock_stripes WHERE product_id = ?", productId);
+            List<Object[]> inserts = new ArrayList<>();
+            for (int i = 0; i < stripeCount; i++) {
+                inserts.add(new Object[]{productId, i, share(total, i)});
+            }
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO product_stock_stripes (product_id, stripe_no, quantity) VALUES (?, ?, ?)", inserts);
+        } else if (total != sum || !isBalanced(stripes.stream().mapToInt(s -> s[1]).min().orElse(0), sum, stripeCount)) {
+            // Move the units in place, touching only the stripes whose share changes
+            List<Object[]> updates = new ArrayList<>();
+            for (int i = 0; i < stripes.size(); i++) {
+                int target = share(total, i);
+                if (stripes.get(i)[1] != target) {
+                    updates.add(new Object[]{target, productId, stripes.get(i)[0]});
+                }
+            }
+            jdbcTemplate.batchUpdate(
+                    "UPDATE product_stock_stripes SET quantity = ? WHERE product_id = ? AND stripe_no = ?", updates);
+        }
+
+        Integer mirror = keep ? Integer.valueOf(total) : null;
+        if (total != rowStock || !Objects.equals(mirror, mirrored)) {
+            jdbcTemplate.update("UPDATE products SET stock_quantity = ?, striped_stock_mirror = ? WHERE product_id = ?",
+                    total, mirror, productId);
+        }
+        if (total != rowStock) {
+            eventPublisher.publishEvent(new ProductStockChangedEvent(Set.of(productId)));
+        }
+    }
+
+    // Stripe i's part of total when spread evenly, the remainder going to the first stripes
+    private int share(int total, int stripe) {
+        return total / stripeCount + (stripe < total % stripeCount ? 1 : 0);
+    }
+
+    // Left alone until the lowest stripe drops below half its even share, so the fast path keeps working
+    private static boolean isBalanced(int min, int sum, int stripeCount) {
+        return min >= sum / stripeCount / 2;
+    }
+
+    // One striped product as the unlocked pre-check saw it
+    private static final class StripeSummary {
+        private final int stock;
+        private final Integer mirror;
+        private final int stripes;
+        private final int sum;
+        private final int min;
+
+        private StripeSummary(int stock, Integer mirror, int stripes, int sum, int min) {
+            this.stock = stock;
+            this.mirror = mirror;
+            this.stripes = stripes;
+            this.sum = sum;
+            this.min = min;
+        }
+
+        // Nothing to move or mirror: no row edit since the mirror, the row shows the stripes, and they are even enough
+        private boolean isSettled(int stripeCount) {
+            return stripes == stripeCount && mirror != null && mirror == stock && sum == stock
+                    && isBalanced(min, sum, stripeCount);
+        }
+    }
+
+    /**
+     * Outcome of a claim. available is the stock the stripes held when the claim was short.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Claim {
+        private final boolean striped;
+        private final boolean claimed;
+        private final int available;
+    }
+}
@@ -2,13 +2,19 @@ package com.example.jewellery_backend.service.impl;
 
 import com.example.jewellery_backend.dto.CategoryDto;
 import com.example.jewellery_backend.entity.Category;
+import com.example.jewellery_backend.entity.CategoryClosureId;
+import com.example.jewellery_backend.event.CategoryChangedEvent;
 import com.example.jewellery_backend.exception.ResourceNotFoundException;
+import com.example.jewellery_backend.repository.CategoryClosureRepository;
 import com.example.jewellery_backend.repository.CategoryRepository;
 import com.example.jewellery_backend.service.CategoryService;
+import com.example.jewellery_backend.service.CategoryTree;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
@@ -16,9 +22,18 @@ import java.util.stream.Collectors;
 public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final CategoryClosureRepository categoryClosureRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CategoryTree categoryTree;
 
-    public CategoryServiceImpl(CategoryRepository categoryRepository) {
+    public CategoryServiceImpl(CategoryRepository categoryRepository,
+                               CategoryClosureRepository categoryClosureRepository,
+                               ApplicationEventPublisher eventPublisher,
+                               CategoryTree categoryTree) {
         this.categoryRepository = categoryRepository;
+        this.categoryClosureRepository = categoryClosureRepository;
+        this.eventPublisher = eventPublisher;
+        this.categoryTree = categoryTree;
     }
 
     private CategoryDto toDto(Category c) {
@@ -29,6 +44,16 @@ public class CategoryServiceImpl implements CategoryService {
                 .slug(c.getSlug())
                 .isActive(c.getIsActive())
                 .imageUrl(c.getImageUrl())
+                .parentCategoryId(c.getParent() != null ? c.getParent().getCategoryId() : null)
+                .build();
+    }
+
+    private CategoryDto toDto(CategoryTree.Node n) {
+        return CategoryDto.builder()
+                .categoryId(n.getCategoryId())
+                .categoryName(n.getCategoryName())
+                .slug(n.getSlug())
+                .isActive(n.getIsActive())
                 .build();
     }
 
@@ -37,12 +62,21 @@ public class CategoryServiceImpl implements CategoryService {
         c.setCategoryName(dto.getCategoryName());
         c.setSlug(dto.getSlug());
         c.setImageUrl(dto.getImageUrl());
+        c.setParent(findParent(dto.getParentCategoryId()));
         return c;
     }
 
+    private Category findParent(Long parentId) {
+        if (parentId == null) return null;
+        return categoryRepository.findById(parentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Category","id",parentId));
+    }
+
     @Override
     public CategoryDto createCategory(CategoryDto dto) {
         Category saved = categoryRepository.save(fromDto(dto));
+        categoryClosureRepository.insertNode(saved.getCategoryId(), dto.getParentCategoryId());
+        eventPublisher.publishEvent(new CategoryChangedEvent(saved.getCategoryId()));
         return toDto(saved);
     }
 
@@ -52,14 +86,39 @@ public class CategoryServiceImpl implements CategoryService {
                 .orElseThrow(() -> new ResourceNotFoundException("Category","id",id));
         existing.setCategoryName(dto.getCategoryName());
         existing.setSlug(dto.getSlug());
-        return toDto(categoryRepository.save(existing));
+
+        // A null parentCategoryId leaves the parent as it is; moving to the top level is explicit
+        boolean moveToRoot = Boolean.TRUE.equals(dto.getMoveToRoot());
+        if (moveToRoot && dto.getParentCategoryId() != null) {
+            throw new IllegalArgumentException("Give either parentCategoryId or moveToRoot, not both");
+        }
+        Long oldParentId = existing.getParent() != null ? existing.getParent().getCategoryId() : null;
+        Long newParentId = moveToRoot ? null
+                : dto.getParentCategoryId() != null ? dto.getParentCategoryId() : oldParentId;
+        if (!Objects.equals(newParentId, oldParentId)) {
+            // The new parent may not be the category itself or anything below it
+            if (newParentId != null && categoryClosureRepository.existsById(new CategoryClosureId(id, newParentId))) {
+                throw new IllegalArgumentException("Category " + id + " cannot be moved under its own subtree");
+            }
+            existing.setParent(findParent(newParentId));
+            categoryClosureRepository.detachSubtree(id);
+            if (newParentId != null) {
+                categoryClosureRepository.attachSubtree(id, newParentId);
+            }
+        }
+        Category saved = categoryRepository.save(existing);
+        eventPublisher.publishEvent(new CategoryChangedEvent(saved.getCategoryId()));
+        return toDto(saved);
     }
 
     @Override
     public void deleteCategory(Long id) {
         Category existing = categoryRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Category","id",id));
+        // Closure rows first, in one statement, so the schema need not rely on ON DELETE CASCADE
+        categoryClosureRepository.deleteSubtree(id);
         categoryRepository.delete(existing);
+        eventPublisher.publishEvent(new CategoryChangedEvent(id));
     }
 
     @Override
@@ -73,4 +132,20 @@ public class CategoryServiceImpl implements CategoryService {
     public List<CategoryDto> getAllCategories() {
         return categoryRepository.findAll().stream().map(this::toDto).collect(Collectors.toList());
     }
+
+    @Override
+    public List<CategoryDto> getBreadcrumb(Long id) {
+        if (!categoryTree.contains(id)) {
+            throw new ResourceNotFoundException("Category","id",id);
+        }
+        return categoryTree.breadcrumb(id).stream().map(this::toDto).collect(Collectors.toList());
+    }
+
+    @Override
+    public List<CategoryDto> getChildren(Long id) {
+        if (!categoryTree.contains(id)) {
+            throw new ResourceNotFoundException("Category","id",id);
+        }
+        return categoryTree.children(id).stream().map(this::toDto).collect(Collectors.toList());
+    }
 }
@@ -1,10 +1,21 @@
 package com.example.jewellery_backend.service.impl;
 
+import com.example.jewellery_backend.dto.Filter.AttributeFacetDto;
+import com.example.jewellery_backend.dto.Filter.FacetCountsDto;
+import com.example.jewellery_backend.dto.Filter.FacetValueDto;
+import com.example.jewellery_backend.dto.Filter.FacetedPage;
 import com.example.jewellery_backend.dto.Filter.FilterRequest;
+import com.example.jewellery_backend.dto.ProductSummary;
 import com.example.jewellery_backend.entity.Product;
+import com.example.jewellery_backend.entity.ProductAttributeValue;
+import com.example.jewellery_backend.entity.ProductCategory;
 import com.example.jewellery_backend.repository.FilterRepository;
 import com.example.jewellery_backend.repository.ProductRepository;
+import com.example.jewellery_backend.service.AttributeDictionary;
+import com.example.jewellery_backend.service.CategoryTree;
 import com.example.jewellery_backend.service.FilterService;
+import com.example.jewellery_backend.service.ProductFacetIndex;
+import com.example.jewellery_backend.service.ProductService;
 import jakarta.persistence.criteria.*;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.domain.Specification;
@@ -13,80 +24,128 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional(readOnly = true)
 public class FilterServiceImpl implements FilterService {
 
     private final FilterRepository filterRepository;
-
-    public FilterServiceImpl(ProductRepository productRepository, FilterRepository filterRepository) {
+    private final ProductService productService;
+    private final ProductFacetIndex productFacetIndex;
+    private final AttributeDictionary attributeDictionary;
+    private final CategoryTree categoryTree;
+
+    public FilterServiceImpl(ProductRepository productRepository, FilterRepository filterRepository,
+                             ProductService productService, ProductFacetIndex productFacetIndex,
+                             AttributeDictionary attributeDictionary, CategoryTree categoryTree) {
         this.filterRepository = filterRepository;
+        this.productService = productService;
+        this.productFacetIndex = productFacetIndex;
+        this.attributeDictionary = attributeDictionary;
+        this.categoryTree = categoryTree;
     }
 
     @Override
-    public Page<Product> filterProducts(FilterRequest request) {
-        int page = (request.getPage() == null || request.getPage() < 0) ? 0 : request.getPage();
-        int size = (request.getSize() == null || request.getSize() <= 0) ? 20 : request.getSize();
+    public Page<ProductSummary> filterProducts(FilterRequest filterRequest) {
+        int page = (filterRequest.getPage() == null || filterRequest.getPage() < 0) ? 0 : filterRequest.getPage();
+        int size = (filterRequest.getSize() == null || filterRequest.getSize() <= 0) ? 20 : filterRequest.getSize();
         Pageable pageable = PageRequest.of(page, size, Sort.by("productId").descending());
 
-        Specification<Product> spec = buildSpecification(request);
-        return filterRepository.findAll(spec, pageable);
+        // Attribute names become ids here, so everything below runs on integer ids only
+        FilterRequest request = attributeDictionary.resolve(filterRequest);
+        if (request == null) {
+            // Some attribute filter names something that does not exist: nothing can match
+            return new PageImpl<>(Collections.emptyList(), pageable, 0);
+        }
+        // A parent category matches products in any of its subcategories
+        if (request.getCategoryIds() != null && !request.getCategoryIds().isEmpty()) {
+            request.setCategoryIds(new ArrayList<>(categoryTree.expandDescendants(request.getCategoryIds())));
+            if (request.getCategoryIds().isEmpty()) {
+                // No requested category has any closure row: nothing can match
+                return new PageImpl<>(Collections.emptyList(), pageable, 0);
+            }
+        }
+
+        // Phase 1: page through matching ids only (in memory when the facet index can answer,
+        // otherwise in SQL); phase 2: load and price just those rows in one batch
+        Page<Long> ids = productFacetIndex.findIds(request, pageable)
+                .orElseGet(() -> filterRepository.findIds(buildSpecification(request), pageable));
+        List<ProductSummary> summaries = productService.getProductSummaries(ids.getContent());
+
+        if (Boolean.TRUE.equals(request.getFacets())) {
+            // Facets need the in-memory index; when it cannot answer, the page is returned without them
+            FacetCountsDto facets = productFacetIndex.countFacets(request).map(this::toFacetCountsDto).orElse(null);
+            return new FacetedPage<>(summaries, pageable, ids.getTotalElements(), facets);
+        }
+        return new PageImpl<>(summaries, pageable, ids.getTotalElements());
+    }
+
+    // Attach names to the id-keyed counts; all from memory (category tree and attribute dictionary)
+    private FacetCountsDto toFacetCountsDto(ProductFacetIndex.FacetCounts counts) {
+        List<FacetValueDto> categories = toFacetValues(counts.getCategoryCounts(),
+                id -> categoryTree.node(id).map(CategoryTree.Node::getCategoryName).orElse(null));
+        List<AttributeFacetDto> attributes = counts.getValueCountsByAttributeId().entrySet().stream()
+                .filter(e -> attributeDictionary.attributeName(e.getKey()) != null)
+                .map(e -> AttributeFacetDto.builder()
+                        .attributeId(e.getKey())
+                        .attributeName(attributeDictionary.attributeName(e.getKey()))
+                        .values(toFacetValues(e.getValue(), attributeDictionary::valueName))
+                        .build())
+                .collect(Collectors.toList());
+        return FacetCountsDto.builder().categories(categories).attributes(attributes).build();
+    }
+
+    // Ids whose row no longer exists (deleted since the index was built) are left out
+    private static List<FacetValueDto> toFacetValues(Map<Long, Integer> counts, Function<Long, String> names) {
+        return counts.entrySet().stream()
+                .filter(e -> names.apply(e.getKey()) != null)
+                .map(e -> new FacetValueDto(e.getKey(), names.apply(e.getKey()), e.getValue()))
+                .collect(Collectors.toList());
     }
 
+    /**
+     * Category and attribute filters are correlated EXISTS subqueries, not joins, so the
+     * main query stays one row per product and needs no DISTINCT for paging or counting.
+     * Expects a request already resolved to ids (categories expanded, attributes as value ids).
+     */
     private Specification<Product> buildSpecification(FilterRequest request) {
         return (root, query, cb) -> {
             List<Predicate> predicates = new ArrayList<>();
-            if (!Long.class.equals(query.getResultType())) query.distinct(true);
 
+            // Filter on the selling price; rows not yet priced fall back to base_price
+            Expression<BigDecimal> price = cb.coalesce(root.<BigDecimal>get("currentPrice"), root.<BigDecimal>get("basePrice"));
             if (request.getMinPrice() != null) {
-                predicates.add(cb.greaterThanOrEqualTo(root.get("basePrice"), BigDecimal.valueOf(request.getMinPrice())));
+                predicates.add(cb.greaterThanOrEqualTo(price, BigDecimal.valueOf(request.getMinPrice())));
             }
             if (request.getMaxPrice() != null) {
-                predicates.add(cb.lessThanOrEqualTo(root.get("basePrice"), BigDecimal.valueOf(request.getMaxPrice())));
+                predicates.add(cb.lessThanOrEqualTo(price, BigDecimal.valueOf(request.getMaxPrice())));
             }
 
             if (request.getCategoryIds() != null && !request.getCategoryIds().isEmpty()) {
-                Join<Product, ?> pcJoin = root.join("productCategories", JoinType.LEFT);
-                Join<?, ?> categoryJoin = pcJoin.join("category", JoinType.LEFT);
-                CriteriaBuilder.In<Long> inClause = cb.in(categoryJoin.get("categoryId"));
-                for (Long cid : request.getCategoryIds()) inClause.value(cid);
-                predicates.add(inClause);
+                // EXISTS (product_categories row for this product in any requested category); served by the PK
+                Subquery<Integer> inCategory = query.subquery(Integer.class);
+                Root<ProductCategory> pc = inCategory.from(ProductCategory.class);
+                inCategory.select(cb.literal(1)).where(
+                        cb.equal(pc.get("id").get("productId"), root.get("productId")),
+                        pc.get("id").get("categoryId").in(request.getCategoryIds()));
+                predicates.add(cb.exists(inCategory));
             }
 
-            if (request.getAttributes() != null && !request.getAttributes().isEmpty()) {
-                for (Map.Entry<String, List<String>> entry : request.getAttributes().entrySet()) {
-                    String attrKey = entry.getKey();
-                    List<String> values = entry.getValue();
-                    if (values == null || values.isEmpty()) continue;
-
-                    Join<Product, ?> pavJoin = root.join("attributeValues", JoinType.LEFT);
-                    Join<?, ?> avJoin = pavJoin.join("attributeValue", JoinType.LEFT);
-                    Join<?, ?> attrJoin = avJoin.join("attribute", JoinType.LEFT);
-
-                    List<Predicate> keyPredicates = new ArrayList<>();
-                    try {
-                        Long attrId = Long.parseLong(attrKey);
-                        keyPredicates.add(cb.equal(attrJoin.get("attributeId"), attrId));
-                    } catch (NumberFormatException ignored) {
-                        keyPredicates.add(cb.equal(cb.lower(attrJoin.get("attributeName")), attrKey.toLowerCase()));
-                    }
-
-                    List<Predicate> valuePreds = new ArrayList<>();
-                    for (String v : values) {
-                        if (v == null) continue;
-                        String trimmed = v.trim();
-                        try {
-                            Long valueId = Long.parseLong(trimmed);
-                            valuePreds.add(cb.equal(avJoin.get("valueId"), valueId));
-                        } catch (NumberFormatException ex) {
-                            valuePreds.add(cb.equal(cb.lower(avJoin.get("attributeValue")), trimmed.toLowerCase()));
-                        }
-                    }
-
-                    Predicate attrKeyOrName = cb.or(keyPredicates.toArray(new Predicate[0]));
-                    Predicate attrValueAny = cb.or(valuePreds.toArray(new Predicate[0]));
-                    predicates.add(cb.and(attrKeyOrName, attrValueAny));
+            if (request.getAttributes() != null) {
+                // Resolved by AttributeDictionary: every value id belongs to its attribute, so the
+                // product_attribute_values(product_id, value_id) index answers each EXISTS alone
+                for (List<String> values : request.getAttributes().values()) {
+                    List<Long> valueIds = values.stream().map(Long::valueOf).collect(Collectors.toList());
+
+                    // EXISTS (a link from this product to any of the attribute's requested values)
+                    Subquery<Integer> hasValue = query.subquery(Integer.class);
+                    Root<ProductAttributeValue> pav = hasValue.from(ProductAttributeValue.class);
+                    hasValue.select(cb.literal(1)).where(
+                            cb.equal(pav.get("product"), root),
+                            pav.get("attributeValue").get("valueId").in(valueIds));
+                    predicates.add(cb.exists(hasValue));
                 }
             }
 
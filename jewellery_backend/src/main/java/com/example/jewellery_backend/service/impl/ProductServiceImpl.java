@@ -6,15 +6,26 @@ import com.example.jewellery_backend.dto.ProductAttributeValueDto;
 import java.util.Collections;
 import com.example.jewellery_backend.dto.CreateUpdateProductRequest;
 import com.example.jewellery_backend.dto.ProductDto;
+import com.example.jewellery_backend.dto.ProductPageDto;
+import com.example.jewellery_backend.dto.ProductSummary;
+import com.example.jewellery_backend.dto.ProductSummaryPageDto;
 import com.example.jewellery_backend.dto.ProductCategoryDto;
 import com.example.jewellery_backend.entity.*;
+import com.example.jewellery_backend.event.ProductChangedEvent;
 import com.example.jewellery_backend.exception.ResourceNotFoundException;
 import com.example.jewellery_backend.repository.*;
+import com.example.jewellery_backend.service.CategoryTree;
+import com.example.jewellery_backend.service.GoldRateSnapshot;
+import com.example.jewellery_backend.service.ProductDetailCache;
 import com.example.jewellery_backend.service.ProductService;
+import com.example.jewellery_backend.util.ProductCursor;
 import lombok.RequiredArgsConstructor;
-import com.example.jewellery_backend.entity.GoldRate;
 import java.math.RoundingMode;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
@@ -27,18 +38,70 @@ import java.util.stream.Collectors;
 @Transactional
 public class ProductServiceImpl implements ProductService {
 
+    // Upper bound on ids per IN (...) list when loading the catalog
+    private static final int CATALOG_FETCH_CHUNK = 1000;
+    // Largest page a client can ask for from the keyset listing
+    private static final int MAX_PAGE_LIMIT = 100;
+
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
     private final ProductCategoryRepository productCategoryRepository;
-    private final CategoryClosureRepository categoryClosureRepository;
-    private final GoldRateRepository goldRateRepository;
+    private final CategoryTree categoryTree;
+    private final GoldRateSnapshot goldRateSnapshot;
     private final ProductImageRepository productImageRepository;
+    private final ProductDetailCache productDetailCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional(readOnly = true)
     public BigDecimal getUpdatedPrice(Long id) {
         Product product = findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
+        return resolvePrice(product, goldRateSnapshot.current());
+    }
+
+    @Override
+    public Map<Long, BigDecimal> priceAll(Collection<Product> products) {
+        if (products == null || products.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        // Read the gold rate once and price every product against it
+        GoldRateSnapshot.Snapshot rate = goldRateSnapshot.current();
+        Map<Long, BigDecimal> prices = new HashMap<>(products.size() * 2);
+        for (Product product : products) {
+            prices.put(product.getProductId(), resolvePrice(product, rate));
+        }
+        return prices;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, BigDecimal> getUpdatedPrices(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return priceAll(productRepository.findAllById(ids));
+    }
+
+    /**
+     * Use the persisted current_price when it was calculated at the current gold rate,
+     * otherwise (repricing job still running, or never priced) calculate it in memory.
+     */
+    private BigDecimal resolvePrice(Product product, GoldRateSnapshot.Snapshot rate) {
+        if (product.getCurrentPrice() != null && Objects.equals(product.getPricedAtRateId(), rate.getHistoryId())) {
+            return product.getCurrentPrice();
+        }
+        return calculatePrice(product, rate.getRatePerGram());
+    }
+
+    // Store the selling price on the row so later reads are a plain column read
+    private void applyCurrentPrice(Product p) {
+        GoldRateSnapshot.Snapshot rate = goldRateSnapshot.current();
+        p.setCurrentPrice(calculatePrice(p, rate.getRatePerGram()));
+        p.setPricedAtRateId(rate.getHistoryId());
+    }
+
+    private BigDecimal calculatePrice(Product product, BigDecimal currentGoldRatePerGram) {
         BigDecimal basePrice = product.getBasePrice() != null ? product.getBasePrice() : BigDecimal.ZERO;
         BigDecimal markupPercentage = product.getMarkupPercentage() != null ? product.getMarkupPercentage() : BigDecimal.ZERO;
         BigDecimal materialCost = BigDecimal.ZERO;
@@ -48,11 +111,7 @@ public class ProductServiceImpl implements ProductService {
                 product.getGoldWeightGrams() != null && product.getGoldWeightGrams().compareTo(BigDecimal.ZERO) > 0 &&
                 product.getGoldPurityKarat() != null && product.getGoldPurityKarat() > 0) {
 
-            // Fetch the latest gold rate
-            Optional<GoldRate> latestRateOpt = goldRateRepository.findTopByOrderByEffectiveDateDesc();
-            BigDecimal currentGoldRatePerGram = latestRateOpt.map(GoldRate::getRate).orElse(BigDecimal.ZERO);
-
-            if (currentGoldRatePerGram.compareTo(BigDecimal.ZERO) > 0) {
+            if (currentGoldRatePerGram != null && currentGoldRatePerGram.compareTo(BigDecimal.ZERO) > 0) {
                 // Calculate material cost: weight * (purity/24) * rate
                 BigDecimal purityFactor = BigDecimal.valueOf(product.getGoldPurityKarat()).divide(BigDecimal.valueOf(24.0), 10, RoundingMode.HALF_UP);
                 materialCost = product.getGoldWeightGrams().multiply(purityFactor).multiply(currentGoldRatePerGram);
@@ -73,7 +132,42 @@ public class ProductServiceImpl implements ProductService {
 
     private ProductDto toDto(Product p) {
         if (p == null) return null;
-        BigDecimal calculatedPrice = getUpdatedPrice(p.getProductId());
+        return toDto(p, resolvePrice(p, goldRateSnapshot.current()));
+    }
+
+    /**
+     * Load products for a listing with categories, images and attribute values
+     * initialised up front: three fetch queries per chunk of ids, whatever the
+     * number of products, instead of lazy loads from toDto. Keeps the order of ids.
+     */
+    private List<Product> loadCatalog(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, Product> byId = new HashMap<>(ids.size() * 2);
+        for (int from = 0; from < ids.size(); from += CATALOG_FETCH_CHUNK) {
+            List<Long> chunk = ids.subList(from, Math.min(from + CATALOG_FETCH_CHUNK, ids.size()));
+            productRepository.findWithCategoriesByProductIdIn(chunk)
+                    .forEach(p -> byId.put(p.getProductId(), p));
+            // Same persistence context: these just initialise the collections on the products above
+            productRepository.findWithImagesByProductIdIn(chunk);
+            productRepository.findWithAttributeValuesByProductIdIn(chunk);
+        }
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    // Prices the whole list in one pass instead of once per product
+    private List<ProductDto> toDtos(List<Product> products) {
+        Map<Long, BigDecimal> prices = priceAll(products);
+        return products.stream()
+                .map(p -> toDto(p, prices.get(p.getProductId())))
+                .collect(Collectors.toList());
+    }
+
+    private ProductDto toDto(Product p, BigDecimal calculatedPrice) {
         ProductDto dto = ProductDto.builder()
                 .productId(p.getProductId())
                 .productName(p.getProductName())
@@ -209,6 +303,7 @@ public class ProductServiceImpl implements ProductService {
                 .productCategories(new ArrayList<>())
                 .attributeValues(new ArrayList<>())
                 .build();
+        applyCurrentPrice(p);
 
         Product saved = productRepository.save(p);
         applyCategories(saved, req.getCategoryIds());
@@ -225,6 +320,7 @@ public class ProductServiceImpl implements ProductService {
             saved.setImages(images); // Set the mapped images on the product
         }
         Product fullySaved = productRepository.save(saved);
+        eventPublisher.publishEvent(new ProductChangedEvent(fullySaved.getProductId()));
         return toDto(fullySaved);
     }
 
@@ -247,6 +343,7 @@ public class ProductServiceImpl implements ProductService {
         if (req.getIsGold() != null) p.setIsGold(req.getIsGold());
         if (req.getGoldWeightGrams() != null) p.setGoldWeightGrams(req.getGoldWeightGrams());
         if (req.getGoldPurityKarat() != null) p.setGoldPurityKarat(req.getGoldPurityKarat());
+        applyCurrentPrice(p);
 
         applyCategories(p, req.getCategoryIds());
         if (req.getImages() != null) { // Check if images data is provided in request
@@ -280,6 +377,7 @@ public class ProductServiceImpl implements ProductService {
             p.getImages().addAll(newImages); // Add all new/updated images
         }
         Product updated = productRepository.save(p);
+        eventPublisher.publishEvent(new ProductChangedEvent(updated.getProductId()));
         return toDto(updated);
     }
 
@@ -288,22 +386,25 @@ public class ProductServiceImpl implements ProductService {
         Product p = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
         productRepository.delete(p);
+        eventPublisher.publishEvent(new ProductChangedEvent(id));
     }
 
+    // SUPPORTS: a cache hit never begins a transaction or borrows a connection,
+    // while a miss still shares one EntityManager for the lazy collections in toDto
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public ProductDto getProductById(Long id) {
-        Product p = productRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
-        return toDto(p);
+        return productDetailCache.getOrLoad(id, productId -> {
+            Product p = productRepository.findById(productId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + productId));
+            return toDto(p);
+        });
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<ProductDto> getAllProducts() {
-        return productRepository.findAll().stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
+        return toDtos(loadCatalog(productRepository.findAllProductIds()));
     }
 
     @Override
@@ -313,32 +414,18 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<ProductDto> getProductsByCategoryId(Long categoryId) {
-        // Ensure category exists (optional but good practice)
-        Category category = categoryRepository.findById(categoryId)
-                .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + categoryId));
-
-        // Get descendant category IDs including the category itself
-        Set<Long> categoryIdsToSearch = categoryClosureRepository.findDescendantIdsByAncestorId(categoryId);
-        if (categoryIdsToSearch == null || categoryIdsToSearch.isEmpty()) {
-            return Collections.emptyList(); // No categories found
-        }
-
-        // --- CORRECTED FETCH: Use findByIdCategoryIdIn for efficiency ---
-        List<ProductCategory> relevantProductCategoryLinks = productCategoryRepository.findByIdCategoryIdIn(categoryIdsToSearch);
-
-        if (relevantProductCategoryLinks.isEmpty()) {
-            return Collections.emptyList(); // No products found for these categories
+    public Page<ProductSummary> getProductsByCategoryId(Long categoryId, int page, int size) {
+        // Ensure category exists; answered by the in-memory category tree
+        if (!categoryTree.contains(categoryId)) {
+            throw new ResourceNotFoundException("Category not found with id: " + categoryId);
         }
 
-        // --- CORRECTED STREAM: Use the 'relevantProductCategoryLinks' variable ---
-        return relevantProductCategoryLinks.stream() // <<< Use the correct variable
-                .map(ProductCategory::getProduct) // Get the Product entity from the link
-                .filter(Objects::nonNull)          // Filter out any null products
-                .distinct()                        // Ensure each product appears only once
-                .filter(p -> p.getIsActive() == null || p.getIsActive()) // Only include active products
-                .map(this::toDto)                  // Convert Product entity to ProductDto (which includes calculated price)
-                .collect(Collectors.toList());
+        // Closure join, active filter, de-duplication and paging all happen in one SQL query
+        PageRequest pageable = PageRequest.of(Math.max(0, page), Math.max(1, Math.min(size, MAX_PAGE_LIMIT)));
+        Page<ProductSummary> result = productRepository.findActiveSummariesInCategoryTree(
+                categoryId, goldRateSnapshot.current().getHistoryId(), pageable);
+        fillMissingPrices(result.getContent());
+        return result;
     }
 
     @Override
@@ -352,9 +439,109 @@ public class ProductServiceImpl implements ProductService {
     @Override
     @Transactional(readOnly = true)
     public List<ProductDto> getActiveProducts() {
-        return productRepository.findByIsActiveTrue()
-                .stream()
-                .map(this::toDto)
+        return toDtos(loadCatalog(productRepository.findActiveProductIds()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ProductPageDto getProductPage(String after, int limit, boolean featuredFirst, boolean activeOnly) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_LIMIT));
+        List<Long> ids = seekIds(after, pageSize, featuredFirst, activeOnly);
+        boolean hasMore = ids.size() > pageSize;
+        List<Product> products = loadCatalog(hasMore ? ids.subList(0, pageSize) : ids);
+
+        String nextCursor = null;
+        if (hasMore && !products.isEmpty()) {
+            nextCursor = ProductCursor.of(products.get(products.size() - 1)).encode(featuredFirst);
+        }
+        return ProductPageDto.builder()
+                .products(toDtos(products))
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ProductSummaryPageDto getProductSummaryPage(String after, int limit, boolean featuredFirst) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_LIMIT));
+        List<Long> ids = seekIds(after, pageSize, featuredFirst, true);
+        boolean hasMore = ids.size() > pageSize;
+        List<ProductSummary> summaries = getProductSummaries(hasMore ? ids.subList(0, pageSize) : ids);
+
+        String nextCursor = null;
+        if (hasMore && !summaries.isEmpty()) {
+            ProductSummary last = summaries.get(summaries.size() - 1);
+            nextCursor = ProductCursor.of(last.getProductId(), last.getFeatured()).encode(featuredFirst);
+        }
+        return ProductSummaryPageDto.builder()
+                .products(summaries)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductSummary> getProductSummaries(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Long rateId = goldRateSnapshot.current().getHistoryId();
+        Map<Long, ProductSummary> byId = new HashMap<>(ids.size() * 2);
+        for (int from = 0; from < ids.size(); from += CATALOG_FETCH_CHUNK) {
+            List<Long> chunk = ids.subList(from, Math.min(from + CATALOG_FETCH_CHUNK, ids.size()));
+            productRepository.findSummariesByProductIdIn(chunk, rateId)
+                    .forEach(s -> byId.put(s.getProductId(), s));
+        }
+
+        fillMissingPrices(byId.values());
+
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
+
+    // Rows not yet repriced at the current rate go through the batch pricer in one query
+    private void fillMissingPrices(Collection<ProductSummary> summaries) {
+        Map<Long, ProductSummary> unpriced = new HashMap<>();
+        for (ProductSummary s : summaries) {
+            if (s.getPrice() == null) unpriced.put(s.getProductId(), s);
+        }
+        if (!unpriced.isEmpty()) {
+            Map<Long, BigDecimal> prices = getUpdatedPrices(unpriced.keySet());
+            unpriced.forEach((id, s) -> s.setPrice(prices.get(id)));
+        }
+    }
+
+    /**
+     * Ids of the next page after the cursor, plus one extra id when another page follows.
+     * Seeks past the cursor instead of using OFFSET. A featured-first page that runs off the end
+     * of the featured group is topped up from the start of the non-featured group.
+     */
+    private List<Long> seekIds(String after, int pageSize, boolean featuredFirst, boolean activeOnly) {
+        ProductCursor cursor = (after == null || after.isBlank())
+                ? ProductCursor.START
+                : ProductCursor.decode(after, featuredFirst);
+        int window = pageSize + 1;
+        if (!featuredFirst) {
+            return activeOnly
+                    ? productRepository.findActiveIdsAfter(cursor.getProductId(), PageRequest.of(0, window))
+                    : productRepository.findIdsAfter(cursor.getProductId(), PageRequest.of(0, window));
+        }
+        if (!cursor.isFeatured()) {
+            return seekFeaturedGroup(false, cursor.getProductId(), window, activeOnly);
+        }
+        List<Long> ids = new ArrayList<>(seekFeaturedGroup(true, cursor.getProductId(), window, activeOnly));
+        if (ids.size() < window) {
+            ids.addAll(seekFeaturedGroup(false, 0L, window - ids.size(), activeOnly));
+        }
+        return ids;
+    }
+
+    private List<Long> seekFeaturedGroup(boolean featured, Long afterId, int limit, boolean activeOnly) {
+        PageRequest window = PageRequest.of(0, limit);
+        return activeOnly
+                ? productRepository.findActiveIdsInFeaturedGroupAfter(featured, afterId, window)
+                : productRepository.findIdsInFeaturedGroupAfter(featured, afterId, window);
+    }
 }
@@ -0,0 +1,58 @@
+package com.example.jewellery_backend.util;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Cart id carried in its own cookie, so a cart can be found on any node without a sticky session.
+ */
+public final class CartCookie {
+
+    public static final String NAME = "CART_ID";
+    private static final Duration MAX_AGE = Duration.ofDays(30);
+
+    private CartCookie() {
+    }
+
+    /**
+     * The caller's cart id. A new id is issued (and its cookie set on the response) when the request has
+     * none or a malformed one. Remembered on the request, so repeated calls in one request agree.
+     */
+    public static String resolve(HttpServletRequest request, HttpServletResponse response) {
+        Object known = request.getAttribute(NAME);
+        if (known instanceof String id) return id;
+
+        String id = null;
+        if (request.getCookies() != null) {
+            for (Cookie c : request.getCookies()) {
+                if (NAME.equals(c.getName()) && isValid(c.getValue())) {
+                    id = c.getValue();
+                    break;
+                }
+            }
+        }
+        if (id == null) {
+            id = UUID.randomUUID().toString();
+            ResponseCookie cookie = ResponseCookie.from(NAME, id)
+                    .path("/")
+                    .httpOnly(true)
+                    .sameSite("Lax")
+                    .maxAge(MAX_AGE)
+                    .build();
+            response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+        }
+        request.setAttribute(NAME, id);
+        return id;
+    }
+
+    // Ids end up in cart_header.session_id (VARCHAR(128)); only accept what we could have issued
+    private static boolean isValid(String value) {
+        return value != null && !value.isEmpty() && value.length() <= 64 && value.matches("[A-Za-z0-9-]+");
+    }
+}
@@ -14,6 +14,25 @@ public class Mapper {
      * Convert Order entity to OrderResponseDto
      */
     public static OrderResponseDto toOrderResponseDto(Order order) {
+        // Convert OrderItems to OrderItemResponseDto
+        List<OrderItemResponseDto> items = order.getOrderItems() == null ? List.of() :
+                order.getOrderItems().stream()
+                        .map(Mapper::toItemResponse)
+                        .collect(Collectors.toList());
+
+        // Set slip info if exists (use first slip)
+        Slip slip = order.getSlips() == null || order.getSlips().isEmpty() ? null : order.getSlips().get(0);
+        return toOrderResponseDto(order, items,
+                slip != null ? slip.getFileName() : null,
+                slip != null ? slip.getFilePath() : null);
+    }
+
+    /**
+     * Convert Order entity to OrderResponseDto with items and slip read separately (the order
+     * read model in OrderService), so the order's own collections are never initialized.
+     */
+    public static OrderResponseDto toOrderResponseDto(Order order, List<OrderItemResponseDto> items,
+                                                      String slipFileName, String slipFilePath) {
         OrderResponseDto orderResponseDto = new OrderResponseDto();
 
         // FIXED: getId() not getID()
@@ -24,21 +43,10 @@ public class Mapper {
         orderResponseDto.setOrderStatusType(order.getOrderStatus());
         orderResponseDto.setCreatedAt(order.getCreatedAt());
 
-        // Convert OrderItems to OrderItemResponseDto
-        List<OrderItemResponseDto> items = order.getOrderItems() == null ? List.of() :
-                order.getOrderItems().stream()
-                        .map(Mapper::toItemResponse)
-                        .collect(Collectors.toList());
-
         // Set items in DTO
         orderResponseDto.setItems(items);
-
-// Set slip info if exists (use first slip)
-        if (order.getSlips() != null && !order.getSlips().isEmpty()) {
-            Slip slip = order.getSlips().get(0);
-            orderResponseDto.setSlipFileName(slip.getFileName());
-            orderResponseDto.setSlipFilePath(slip.getFilePath());
-        }
+        orderResponseDto.setSlipFileName(slipFileName);
+        orderResponseDto.setSlipFilePath(slipFilePath);
 
 
         return orderResponseDto;
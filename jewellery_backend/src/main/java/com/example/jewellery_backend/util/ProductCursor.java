@@ -0,0 +1,54 @@
+package com.example.jewellery_backend.util;
+
+import com.example.jewellery_backend.entity.Product;
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in a keyset-paged product listing, encoded as an opaque URL-safe token.
+ * Listings are ordered by productId, or by featured (featured first) then productId.
+ */
+@Value
+public class ProductCursor {
+
+    /** Position before the first product of any listing. */
+    public static final ProductCursor START = new ProductCursor(0L, true);
+
+    Long productId;
+    boolean featured;
+
+    public static ProductCursor of(Product product) {
+        return of(product.getProductId(), product.getFeatured());
+    }
+
+    public static ProductCursor of(Long productId, Boolean featured) {
+        return new ProductCursor(productId, Boolean.TRUE.equals(featured));
+    }
+
+    public String encode(boolean featuredFirst) {
+        String raw = featuredFirst
+                ? "f:" + (featured ? 1 : 0) + ":" + productId
+                : "id:" + productId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token is malformed or was issued for the other sort order
+     */
+    public static ProductCursor decode(String token, boolean featuredFirst) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(":");
+            if (featuredFirst && parts.length == 3 && "f".equals(parts[0])) {
+                return new ProductCursor(Long.parseLong(parts[2]), "1".equals(parts[1]));
+            }
+            if (!featuredFirst && parts.length == 2 && "id".equals(parts[0])) {
+                return new ProductCursor(Long.parseLong(parts[1]), false);
+            }
+        } catch (IllegalArgumentException ignored) {
+            // falls through to the error below (also covers NumberFormatException)
+        }
+        throw new IllegalArgumentException("Invalid cursor: " + token);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.jewellery_backend.benchmark;
+
+import com.example.jewellery_backend.JewelleryBackendApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Starts the application without the web server for a benchmark, on the test profile
+ * (the TEST_DB_URL database, background jobs slowed down) plus the given properties.
+ */
+final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start(String... properties) {
+        if (System.getenv("TEST_DB_URL") == null) {
+            throw new IllegalStateException("Benchmarks need a MySQL database: set TEST_DB_URL (see README)");
+        }
+        return new SpringApplicationBuilder(JewelleryBackendApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties(properties)
+                .run();
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.jewellery_backend.benchmark;
+
+import com.example.jewellery_backend.Cart;
+import com.example.jewellery_backend.CartItem;
+import com.example.jewellery_backend.entity.Product;
+import com.example.jewellery_backend.repository.ProductRepository;
+import com.example.jewellery_backend.service.CartStore;
+import com.example.jewellery_backend.service.JdbcCartStore;
+import com.example.jewellery_backend.util.CartMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Add-to-cart (load, add a line, save) against each cart.store.type, spread over many carts
+ * the way anonymous shoppers are. The jdbc store writes behind, so its flushes run in the
+ * background as they do in production.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(8)
+public class CartStoreBenchmark {
+
+    private static final int CARTS = 10_000;
+    private static final int PRODUCTS = 5;
+
+    @Param({"memory", "offheap", "jdbc"})
+    public String store;
+
+    private ConfigurableApplicationContext context;
+    private CartStore cartStore;
+    private String prefix;
+    private final List<Long> productIds = new ArrayList<>();
+    private final AtomicLong counter = new AtomicLong();
+
+    @Setup
+    public void start() {
+        context = BenchmarkContext.start("cart.store.type=" + store);
+        cartStore = context.getBean(CartStore.class);
+        prefix = "csb-" + UUID.randomUUID().toString().substring(0, 8);
+        ProductRepository products = context.getBean(ProductRepository.class);
+        for (int i = 0; i < PRODUCTS; i++) {
+            productIds.add(products.save(Product.builder()
+                    .productName(prefix + "-" + i)
+                    .sku(prefix + "-" + i)
+                    .basePrice(BigDecimal.valueOf(1000))
+                    .stockQuantity(100)
+                    .build()).getProductId());
+        }
+    }
+
+    @TearDown
+    public void stop() {
+        try {
+            if (cartStore instanceof JdbcCartStore) {
+                ((JdbcCartStore) cartStore).flush();
+            }
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            // Children first: a schema made by ddl-auto has no ON DELETE CASCADE
+            jdbcTemplate.update("DELETE ci FROM cart_items ci JOIN cart_header ch ON ch.cart_header_id = ci.cart_header_id " +
+                    "WHERE ch.session_id LIKE ?", prefix + "-%");
+            jdbcTemplate.update("DELETE FROM cart_header WHERE session_id LIKE ?", prefix + "-%");
+            jdbcTemplate.update("DELETE FROM products WHERE sku LIKE ?", prefix + "-%");
+        } finally {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public Cart addToCart() {
+        long n = counter.getAndIncrement();
+        String cartId = prefix + "-" + (n % CARTS);
+        Long productId = productIds.get((int) (n % PRODUCTS));
+        Cart cart = cartStore.load(cartId);
+        synchronized (cart) {
+            cart.addItem(CartItem.builder()
+                    .itemKey(CartMapper.makeItemKey(productId, null))
+                    .productId(productId)
+                    .productName(prefix)
+                    .unitPrice(BigDecimal.valueOf(1000))
+                    .quantity(1)
+                    .build());
+        }
+        cartStore.save(cartId, cart);
+        return cart;
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.jewellery_backend.benchmark;
+
+import com.example.jewellery_backend.dto.Filter.FilterRequest;
+import com.example.jewellery_backend.dto.ProductSummary;
+import com.example.jewellery_backend.service.AttributeDictionary;
+import com.example.jewellery_backend.service.CategoryTree;
+import com.example.jewellery_backend.service.FilterService;
+import com.example.jewellery_backend.service.ProductFacetIndex;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The product filter over 50k seeded products: category subtree plus price range, two attribute
+ * filters by id and by name, and a deep page. "sql" turns the facet index off so every request
+ * runs the EXISTS query; "index" answers from the in-memory bitmaps.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ProductFilterBenchmark {
+
+    private static final int PRODUCTS = 50_000;
+    private static final int ROOT_CATEGORIES = 10;
+    private static final int CHILD_CATEGORIES = 5;
+    private static final int ATTRIBUTES = 3;
+    private static final int VALUES = 8;
+    private static final int BATCH = 1000;
+
+    @Param({"sql", "index"})
+    public String path;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private FilterService filterService;
+    private String prefix;
+    private final List<Long> rootCategoryIds = new ArrayList<>();
+    private final List<Long> childCategoryIds = new ArrayList<>();
+    private final List<Long> attributeIds = new ArrayList<>();
+    // attribute index -> value ids
+    private final List<List<Long>> valueIds = new ArrayList<>();
+
+    @Setup
+    public void seed() {
+        context = BenchmarkContext.start("product.facet-index.enabled=" + path.equals("index"));
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        filterService = context.getBean(FilterService.class);
+        prefix = "pfb-" + UUID.randomUUID().toString().substring(0, 8);
+
+        seedCategories();
+        seedAttributes();
+        seedProducts();
+
+        context.getBean(CategoryTree.class).rebuild();
+        context.getBean(AttributeDictionary.class).scheduledRefresh();
+        context.getBean(ProductFacetIndex.class).rebuild();
+    }
+
+    @TearDown
+    public void cleanUp() {
+        try {
+            // Children first: a schema made by ddl-auto has no ON DELETE CASCADE
+            String like = prefix + "-%";
+            jdbcTemplate.update("DELETE pav FROM product_attribute_values pav JOIN products p ON p.product_id = pav.product_id WHERE p.sku LIKE ?", like);
+            jdbcTemplate.update("DELETE pc FROM product_categories pc JOIN products p ON p.product_id = pc.product_id WHERE p.sku LIKE ?", like);
+            jdbcTemplate.update("DELETE FROM products WHERE sku LIKE ?", like);
+            jdbcTemplate.update("DELETE av FROM attribute_values av JOIN attributes a ON a.attribute_id = av.attribute_id WHERE a.attribute_name LIKE ?", like);
+            jdbcTemplate.update("DELETE FROM attributes WHERE attribute_name LIKE ?", like);
+            jdbcTemplate.update("DELETE cc FROM categories_closure cc JOIN categories c ON c.category_id = cc.descendant_id WHERE c.category_slug LIKE ?", like);
+            jdbcTemplate.update("DELETE FROM categories WHERE category_slug LIKE ? AND parent_category_id IS NOT NULL", like);
+            jdbcTemplate.update("DELETE FROM categories WHERE category_slug LIKE ?", like);
+        } finally {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public Page<ProductSummary> categoryAndPrice() {
+        FilterRequest request = new FilterRequest();
+        request.setCategoryIds(List.of(rootCategoryIds.get(3)));
+        request.setMinPrice(1000.0);
+        request.setMaxPrice(20000.0);
+        return filterService.filterProducts(request);
+    }
+
+    @Benchmark
+    public Page<ProductSummary> attributesById() {
+        FilterRequest request = new FilterRequest();
+        Map<String, List<String>> attributes = new LinkedHashMap<>();
+        attributes.put(attributeIds.get(0).toString(),
+                List.of(valueIds.get(0).get(1).toString(), valueIds.get(0).get(2).toString()));
+        attributes.put(attributeIds.get(1).toString(), List.of(valueIds.get(1).get(5).toString()));
+        request.setAttributes(attributes);
+        return filterService.filterProducts(request);
+    }
+
+    @Benchmark
+    public Page<ProductSummary> attributesByName() {
+        FilterRequest request = new FilterRequest();
+        Map<String, List<String>> attributes = new LinkedHashMap<>();
+        attributes.put(prefix + "-attr-0", List.of("value-1", "value-2"));
+        attributes.put(prefix + "-attr-1", List.of("value-5"));
+        request.setAttributes(attributes);
+        return filterService.filterProducts(request);
+    }
+
+    @Benchmark
+    public Page<ProductSummary> deepPage() {
+        FilterRequest request = new FilterRequest();
+        request.setCategoryIds(List.of(rootCategoryIds.get(0), rootCategoryIds.get(1)));
+        request.setPage(100);
+        request.setSize(20);
+        return filterService.filterProducts(request);
+    }
+
+    private void seedCategories() {
+        for (int r = 0; r < ROOT_CATEGORIES; r++) {
+            Long rootId = insertCategory(prefix + "-c" + r, null);
+            rootCategoryIds.add(rootId);
+            for (int c = 0; c < CHILD_CATEGORIES; c++) {
+                childCategoryIds.add(insertCategory(prefix + "-c" + r + "-" + c, rootId));
+            }
+        }
+    }
+
+    private Long insertCategory(String slug, Long parentId) {
+        jdbcTemplate.update("INSERT INTO categories (category_name, category_slug, parent_category_id, is_active) VALUES (?, ?, ?, TRUE)",
+                slug, slug, parentId);
+        Long id = jdbcTemplate.queryForObject("SELECT category_id FROM categories WHERE category_slug = ?", Long.class, slug);
+        jdbcTemplate.update("INSERT INTO categories_closure (ancestor_id, descendant_id, depth) VALUES (?, ?, 0)", id, id);
+        if (parentId != null) {
+            jdbcTemplate.update("INSERT INTO categories_closure (ancestor_id, descendant_id, depth) " +
+                    "SELECT ancestor_id, ?, depth + 1 FROM categories_closure WHERE descendant_id = ?", id, parentId);
+        }
+        return id;
+    }
+
+    private void seedAttributes() {
+        for (int a = 0; a < ATTRIBUTES; a++) {
+            String name = prefix + "-attr-" + a;
+            jdbcTemplate.update("INSERT INTO attributes (attribute_name) VALUES (?)", name);
+            Long attributeId = jdbcTemplate.queryForObject(
+                    "SELECT attribute_id FROM attributes WHERE attribute_name = ?", Long.class, name);
+            attributeIds.add(attributeId);
+            List<Object[]> values = new ArrayList<>();
+            for (int v = 0; v < VALUES; v++) {
+                values.add(new Object[]{attributeId, "value-" + v});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO attribute_values (attribute_id, attribute_value) VALUES (?, ?)", values);
+            valueIds.add(jdbcTemplate.queryForList(
+                    "SELECT value_id FROM attribute_values WHERE attribute_id = ? ORDER BY value_id", Long.class, attributeId));
+        }
+    }
+
+    // Prices 500-50000, one child category and one value per attribute each, spread evenly
+    private void seedProducts() {
+        Random random = new Random(42);
+        for (int from = 0; from < PRODUCTS; from += BATCH) {
+            List<Object[]> rows = new ArrayList<>();
+            for (int i = from; i < Math.min(from + BATCH, PRODUCTS); i++) {
+                int price = 500 + random.nextInt(49_500);
+                rows.add(new Object[]{prefix + "-" + i, prefix + "-" + i, price, price, 10});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO products (product_name, sku, base_price, current_price, stock_quantity, " +
+                    "is_active, featured) VALUES (?, ?, ?, ?, ?, TRUE, FALSE)", rows);
+        }
+        List<Long> productIds = jdbcTemplate.queryForList(
+                "SELECT product_id FROM products WHERE sku LIKE ? ORDER BY product_id", Long.class, prefix + "-%");
+
+        List<Object[]> categoryLinks = new ArrayList<>();
+        List<Object[]> valueLinks = new ArrayList<>();
+        for (int i = 0; i < productIds.size(); i++) {
+            Long productId = productIds.get(i);
+            categoryLinks.add(new Object[]{productId, childCategoryIds.get(i % childCategoryIds.size())});
+            for (int a = 0; a < ATTRIBUTES; a++) {
+                List<Long> values = valueIds.get(a);
+                valueLinks.add(new Object[]{productId, values.get(random.nextInt(values.size()))});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO product_categories (product_id, category_id) VALUES (?, ?)", categoryLinks);
+        jdbcTemplate.batchUpdate("INSERT INTO product_attribute_values (product_id, value_id) VALUES (?, ?)", valueLinks);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.jewellery_backend.benchmark;
+
+import com.example.jewellery_backend.repository.ProductRepository;
+import com.example.jewellery_backend.service.*;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A flash sale: 200 parallel one-unit checkouts of a product with 50 in stock, on a striped
+ * (featured) product and on a plain one that keeps its stock in the products row. Each
+ * iteration sells out a fresh product; every checkout stores a real slip file, cleaned up at the end.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class StripedStockBenchmark {
+
+    private static final int STOCK = 50;
+    private static final int CHECKOUTS = 200;
+
+    @Param({"striped", "plain"})
+    public String layout;
+
+    private ConfigurableApplicationContext context;
+    private CheckoutBurst burst;
+    private List<String> cartIds;
+
+    @Setup
+    public void start() {
+        context = BenchmarkContext.start("stock.striping.enabled=true", "stock.striping.stripes=8");
+        burst = new CheckoutBurst("ssb", context.getBean(OrderService.class), context.getBean(CartStore.class),
+                context.getBean(ProductRepository.class), context.getBean(FileStorageService.class),
+                context.getBean(JdbcTemplate.class));
+    }
+
+    @Setup(Level.Iteration)
+    public void restock() {
+        Long productId = burst.createProduct("p" + System.nanoTime(), STOCK, layout.equals("striped"));
+        context.getBean(StripedStockLedger.class).rebalance();
+        cartIds = burst.seedCarts(productId, CHECKOUTS);
+    }
+
+    @TearDown
+    public void stop() {
+        try {
+            burst.cleanUp();
+        } finally {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public CheckoutBurst.Result sellOut() throws InterruptedException {
+        CheckoutBurst.Result result = burst.run(cartIds);
+        if (!result.getUnexpected().isEmpty() || result.getSold() != STOCK) {
+            throw new IllegalStateException("Sold " + result.getSold() + " of " + STOCK + ", "
+                    + result.getUnexpected().size() + " checkouts failed unexpectedly");
+        }
+        return result;
+    }
+}
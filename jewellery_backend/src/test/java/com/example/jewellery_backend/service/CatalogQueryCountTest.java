@@ -0,0 +1,112 @@
+package com.example.jewellery_backend.service;
+
+import com.example.jewellery_backend.dto.ProductDto;
+import com.example.jewellery_backend.entity.*;
+import com.example.jewellery_backend.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Catalog listings load products, categories, images and attribute values with a fixed
+ * number of statements: one id query plus three fetch queries per chunk of 1000 ids.
+ * Runs in a rolled-back transaction.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfEnvironmentVariable(named = "TEST_DB_URL", matches = ".+")
+@Transactional
+class CatalogQueryCountTest {
+
+    private static final int PRODUCTS = 500;
+    private static final int FETCH_CHUNK = 1000;
+
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private GoldRateSnapshot goldRateSnapshot;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void listingCostsTheSameStatementsWhateverTheCatalogSize() {
+        String prefix = "qc-" + UUID.randomUUID().toString().substring(0, 8) + "-";
+        seedCatalog(prefix);
+        entityManager.flush();
+        entityManager.clear();
+
+        long total = productRepository.count();
+        goldRateSnapshot.current(); // loaded once at startup, not part of the listing
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<ProductDto> products = productService.getAllProducts();
+
+        long chunks = (total + FETCH_CHUNK - 1) / FETCH_CHUNK;
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1 + 3 * chunks);
+        assertThat(products).hasSize((int) total);
+
+        // The collections really were loaded by those statements
+        List<ProductDto> seeded = products.stream().filter(p -> p.getSku().startsWith(prefix)).toList();
+        assertThat(seeded).hasSize(PRODUCTS);
+        assertThat(seeded).allSatisfy(p -> {
+            assertThat(p.getImages()).hasSize(2);
+            assertThat(p.getAttributeValues()).hasSize(2);
+            assertThat(p.getProductCategories()).hasSize(1);
+        });
+    }
+
+    private void seedCatalog(String prefix) {
+        Category category = Category.builder().categoryName(prefix + "rings").slug(prefix + "rings").build();
+        entityManager.persist(category);
+        Attribute metal = Attribute.builder().attributeName(prefix + "metal").build();
+        entityManager.persist(metal);
+        AttributeValue gold = AttributeValue.builder().attribute(metal).attributeValue("gold").build();
+        AttributeValue silver = AttributeValue.builder().attribute(metal).attributeValue("silver").build();
+        entityManager.persist(gold);
+        entityManager.persist(silver);
+
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = Product.builder()
+                    .productName(prefix + i)
+                    .sku(prefix + i)
+                    .basePrice(BigDecimal.valueOf(100 + i))
+                    .stockQuantity(10)
+                    .build();
+            entityManager.persist(product);
+
+            for (int n = 0; n < 2; n++) {
+                entityManager.persist(ProductImage.builder()
+                        .product(product)
+                        .imageUrl("/uploads/" + prefix + i + "-" + n + ".jpg")
+                        .isPrimary(n == 0)
+                        .sortOrder(n)
+                        .build());
+            }
+            entityManager.persist(ProductCategory.builder()
+                    .id(new ProductCategoryId(product.getProductId(), category.getCategoryId()))
+                    .product(product)
+                    .category(category)
+                    .build());
+            entityManager.persist(ProductAttributeValue.builder().product(product).attributeValue(gold).build());
+            entityManager.persist(ProductAttributeValue.builder().product(product).attributeValue(silver).build());
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.jewellery_backend.service;
+
+import com.example.jewellery_backend.Cart;
+import com.example.jewellery_backend.CartItem;
+import com.example.jewellery_backend.dto.OrderRequestDto;
+import com.example.jewellery_backend.entity.Product;
+import com.example.jewellery_backend.exception.InsufficientStockException;
+import com.example.jewellery_backend.repository.ProductRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Many shoppers checking out one product at once, for the concurrency tests and the stock
+ * benchmark. Everything it creates (products, carts, orders, slips) is named after one random
+ * prefix, and {@link #cleanUp()} deletes it again, since each checkout commits on its own.
+ */
+public final class CheckoutBurst {
+
+    private static final int THREADS = 32;
+
+    private final OrderService orderService;
+    private final CartStore cartStore;
+    private final ProductRepository productRepository;
+    private final FileStorageService fileStorageService;
+    private final JdbcTemplate jdbcTemplate;
+    private final String prefix;
+    private int carts;
+
+    public CheckoutBurst(String name, OrderService orderService, CartStore cartStore,
+                         ProductRepository productRepository, FileStorageService fileStorageService,
+                         JdbcTemplate jdbcTemplate) {
+        this.orderService = orderService;
+        this.cartStore = cartStore;
+        this.productRepository = productRepository;
+        this.fileStorageService = fileStorageService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.prefix = name + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    public Long createProduct(String name, int stock, boolean featured) {
+        String sku = prefix + "-" + name;
+        return productRepository.save(Product.builder()
+                .productName(sku)
+                .sku(sku)
+                .basePrice(BigDecimal.valueOf(1000))
+                .stockQuantity(stock)
+                .featured(featured)
+                .build()).getProductId();
+    }
+
+    /**
+     * One saved cart per shopper, each holding one unit of the product. Returns the cart ids.
+     */
+    public List<String> seedCarts(Long productId, int shoppers) {
+        List<String> cartIds = new ArrayList<>();
+        for (int i = 0; i < shoppers; i++) {
+            Cart cart = new Cart();
+            cart.addItem(CartItem.builder()
+                    .itemKey(productId + ":")
+                    .productId(productId)
+                    .productName(prefix)
+                    .unitPrice(BigDecimal.valueOf(1000))
+                    .quantity(1)
+                    .build());
+            String cartId = prefix + "-cart-" + carts++;
+            cartStore.save(cartId, cart);
+            cartIds.add(cartId);
+        }
+        return cartIds;
+    }
+
+    /**
+     * Checks out all the carts in parallel, released together, and waits for every checkout.
+     */
+    public Result run(List<String> cartIds) throws InterruptedException {
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+        List<Throwable> unexpected = new CopyOnWriteArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (String cartId : cartIds) {
+                pool.submit(() -> {
+                    try {
+                        start.await();
+                        orderService.createOrderFromCart(customer(), slip(), cartId);
+                        sold.incrementAndGet();
+                    } catch (InsufficientStockException ex) {
+                        refused.incrementAndGet();
+                    } catch (Throwable ex) {
+                        unexpected.add(ex);
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+            pool.shutdown();
+            if (!pool.awaitTermination(2, TimeUnit.MINUTES)) {
+                throw new IllegalStateException("Checkouts did not finish within 2 minutes");
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return new Result(sold.get(), refused.get(), unexpected);
+    }
+
+    public int countOrders() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders WHERE user_email = ?", Integer.class, email());
+    }
+
+    public void cleanUp() {
+        String email = email();
+        String skus = prefix + "-%";
+        jdbcTemplate.queryForList(
+                "SELECT s.file_path FROM slips s JOIN orders o ON o.order_id = s.order_id WHERE o.user_email = ?",
+                String.class, email).forEach(fileStorageService::delete);
+        jdbcTemplate.update("DELETE s FROM slips s JOIN orders o ON o.order_id = s.order_id WHERE o.user_email = ?", email);
+        jdbcTemplate.update("DELETE oi FROM order_items oi JOIN orders o ON o.order_id = oi.order_id WHERE o.user_email = ?", email);
+        jdbcTemplate.update("DELETE FROM orders WHERE user_email = ?", email);
+        jdbcTemplate.update("DELETE ci FROM cart_items ci JOIN products p ON p.product_id = ci.product_id WHERE p.sku LIKE ?", skus);
+        jdbcTemplate.update("DELETE FROM cart_header WHERE session_id LIKE ?", prefix + "-cart-%");
+        jdbcTemplate.update("DELETE st FROM product_stock_stripes st JOIN products p ON p.product_id = st.product_id WHERE p.sku LIKE ?", skus);
+        jdbcTemplate.update("DELETE FROM products WHERE sku LIKE ?", skus);
+    }
+
+    private String email() {
+        return prefix + "@example.com";
+    }
+
+    private OrderRequestDto customer() {
+        return OrderRequestDto.builder()
+                .customerName("Checkout Burst")
+                .customerEmail(email())
+                .customerAddress("1 Test Street")
+                .telephoneNumber("0771234567")
+                .build();
+    }
+
+    private static MockMultipartFile slip() {
+        return new MockMultipartFile("slip", "slip.png", "image/png", new byte[]{1, 2, 3});
+    }
+
+    /**
+     * How the checkouts of one run ended.
+     */
+    public static final class Result {
+        private final int sold;
+        private final int refused;
+        private final List<Throwable> unexpected;
+
+        private Result(int sold, int refused, List<Throwable> unexpected) {
+            this.sold = sold;
+            this.refused = refused;
+            this.unexpected = unexpected;
+        }
+
+        public int getSold() {
+            return sold;
+        }
+
+        public int getRefused() {
+            return refused;
+        }
+
+        public List<Throwable> getUnexpected() {
+            return unexpected;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.jewellery_backend.service;
+
+import com.example.jewellery_backend.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Many shoppers checking out the last units of one product at once: exactly the stock is sold,
+ * everyone else gets InsufficientStockException, and stock ends at zero, never below.
+ * Each checkout commits on its own, so this test cleans up after itself instead of rolling back.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfEnvironmentVariable(named = "TEST_DB_URL", matches = ".+")
+class CheckoutConcurrencyTest {
+
+    private static final int STOCK = 50;
+    private static final int CHECKOUTS = 200;
+
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private CartStore cartStore;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @MockBean
+    private FileStorageService fileStorageService;
+
+    private CheckoutBurst burst;
+    private Long productId;
+
+    @BeforeEach
+    void createProduct() {
+        burst = new CheckoutBurst("cc", orderService, cartStore, productRepository, fileStorageService, jdbcTemplate);
+        productId = burst.createProduct("product", STOCK, false);
+        when(fileStorageService.storeFile(any(), anyString())).thenReturn("slips/" + burst.getPrefix() + ".png");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        burst.cleanUp();
+    }
+
+    @Test
+    void parallelCheckoutsSellExactlyTheStock() throws Exception {
+        CheckoutBurst.Result result = burst.run(burst.seedCarts(productId, CHECKOUTS));
+
+        assertThat(result.getUnexpected()).isEmpty();
+        assertThat(result.getSold()).isEqualTo(STOCK);
+        assertThat(result.getRefused()).isEqualTo(CHECKOUTS - STOCK);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT stock_quantity FROM products WHERE product_id = ?", Integer.class, productId)).isZero();
+        assertThat(burst.countOrders()).isEqualTo(STOCK);
+    }
+}
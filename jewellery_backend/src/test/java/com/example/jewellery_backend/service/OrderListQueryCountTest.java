@@ -0,0 +1,130 @@
+package com.example.jewellery_backend.service;
+
+import com.example.jewellery_backend.dto.OrderResponseDto;
+import com.example.jewellery_backend.entity.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A page of the admin order list costs four statements whatever its size: the page of orders,
+ * the count, the item rows and the first slips. Runs in a rolled-back transaction.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfEnvironmentVariable(named = "TEST_DB_URL", matches = ".+")
+@Transactional
+class OrderListQueryCountTest {
+
+    private static final int ORDERS = 30;
+
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private OrderStatusRegistry orderStatusRegistry;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private String prefix;
+    private Statistics statistics;
+
+    @BeforeEach
+    void seedOrders() {
+        prefix = "olq-" + UUID.randomUUID().toString().substring(0, 8);
+        Product ring = product(prefix + "-ring");
+        Product chain = product(prefix + "-chain");
+
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = Order.builder()
+                    .userName("Order " + i)
+                    .userEmail(prefix + "-" + i + "@example.com")
+                    .userAddress("1 Test Street")
+                    .telephoneNumber("0771234567")
+                    .orderStatus(orderStatusRegistry.orderStatus(OrderStatusType.OrderStatus.pending))
+                    .paymentStatus(orderStatusRegistry.paymentStatus(PaymentStatusType.PaymentStatus.pending))
+                    .subtotal(BigDecimal.valueOf(3000))
+                    .totalAmount(BigDecimal.valueOf(3000))
+                    .currency("LKR")
+                    .build();
+            order.addOrderItem(item(ring, 1));
+            order.addOrderItem(item(chain, 2));
+            order.addSlip(Slip.builder()
+                    .fileName("slip-" + i + ".png")
+                    .filePath("slips/" + prefix + "/slip-" + i + ".png")
+                    .paymentStatus(orderStatusRegistry.paymentStatus(PaymentStatusType.PaymentStatus.pending))
+                    .verified(false)
+                    .build());
+            entityManager.persist(order);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void pageCostsFourStatementsWhateverItsSize() {
+        for (int size : new int[]{5, 20}) {
+            statistics.clear();
+
+            Page<OrderResponseDto> page = orderService.listOrders(null, null, null, null, prefix, 0, size, null);
+
+            assertThat(statistics.getPrepareStatementCount()).as("statements for a page of %d", size).isEqualTo(4);
+            assertThat(page.getContent()).hasSize(size);
+            assertThat(page.getTotalElements()).isEqualTo(ORDERS);
+            assertThat(page.getContent()).allSatisfy(o -> {
+                assertThat(o.getItems()).hasSize(2);
+                assertThat(o.getSlipFileName()).isNotNull();
+            });
+        }
+    }
+
+    @Test
+    void statusFilterDoesNotAddStatements() {
+        statistics.clear();
+
+        Page<OrderResponseDto> page = orderService.listOrders(OrderStatusType.OrderStatus.pending,
+                PaymentStatusType.PaymentStatus.pending, null, null, prefix, 0, 10, "totalAmount,desc");
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+        assertThat(page.getContent()).hasSize(10);
+        assertThat(page.getTotalElements()).isEqualTo(ORDERS);
+    }
+
+    private Product product(String sku) {
+        Product product = Product.builder()
+                .productName(sku)
+                .sku(sku)
+                .basePrice(BigDecimal.valueOf(1000))
+                .stockQuantity(10)
+                .build();
+        entityManager.persist(product);
+        return product;
+    }
+
+    private static OrderItem item(Product product, int quantity) {
+        OrderItem item = OrderItem.builder()
+                .product(product)
+                .quantity(quantity)
+                .unitPrice(BigDecimal.valueOf(1000))
+                .build();
+        item.calculateTotalPrice();
+        return item;
+    }
+}
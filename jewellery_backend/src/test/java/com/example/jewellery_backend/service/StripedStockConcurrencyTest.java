@@ -0,0 +1,121 @@
+package com.example.jewellery_backend.service;
+
+import com.example.jewellery_backend.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Flash sale on a striped (featured) product next to the same burst on a plain product:
+ * both sell exactly their stock, and the rebalance mirrors the striped result into products.
+ * StripedStockBenchmark compares how long the two bursts take.
+ * Checkouts commit, so the test cleans up after itself instead of rolling back.
+ */
+@SpringBootTest(properties = {"stock.striping.enabled=true", "stock.striping.stripes=8"})
+@ActiveProfiles("test")
+@EnabledIfEnvironmentVariable(named = "TEST_DB_URL", matches = ".+")
+class StripedStockConcurrencyTest {
+
+    private static final int STOCK = 50;
+    private static final int CHECKOUTS = 200;
+
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private CartStore cartStore;
+    @Autowired
+    private StripedStockLedger stripedStockLedger;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @MockBean
+    private FileStorageService fileStorageService;
+
+    private CheckoutBurst burst;
+    private Long stripedId;
+    private Long plainId;
+
+    @BeforeEach
+    void createProducts() {
+        burst = new CheckoutBurst("ss", orderService, cartStore, productRepository, fileStorageService, jdbcTemplate);
+        stripedId = burst.createProduct("striped", STOCK, true);
+        plainId = burst.createProduct("plain", STOCK, false);
+        when(fileStorageService.storeFile(any(), anyString())).thenReturn("slips/" + burst.getPrefix() + ".png");
+        stripedStockLedger.rebalance();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        burst.cleanUp();
+    }
+
+    @Test
+    void stripedAndSingleRowStockBothSellExactlyTheStock() throws Exception {
+        assertThat(stripedStockLedger.isStriped(stripedId)).isTrue();
+        assertThat(stripedStockLedger.isStriped(plainId)).isFalse();
+        assertThat(stripeSum(stripedId)).isEqualTo(STOCK);
+
+        assertSellsExactlyTheStock(burst.run(burst.seedCarts(stripedId, CHECKOUTS)));
+        assertSellsExactlyTheStock(burst.run(burst.seedCarts(plainId, CHECKOUTS)));
+
+        assertThat(stripeSum(stripedId)).isZero();
+        assertThat(stock(plainId)).isZero();
+
+        stripedStockLedger.rebalance();
+        assertThat(stock(stripedId)).isZero();
+        assertThat(mirror(stripedId)).isZero();
+    }
+
+    @Test
+    void stockEditBetweenRebalancesSurvivesARestart() {
+        // Admin adds 10 units to the row; a fresh ledger (another node, or this one restarted) must keep them
+        jdbcTemplate.update("UPDATE products SET stock_quantity = stock_quantity + 10 WHERE product_id = ?", stripedId);
+        StripedStockLedger restarted = new StripedStockLedger(jdbcTemplate, transactionManager, eventPublisher, true, 8);
+
+        restarted.rebalance();
+
+        assertThat(stock(stripedId)).isEqualTo(STOCK + 10);
+        assertThat(stripeSum(stripedId)).isEqualTo(STOCK + 10);
+        assertThat(mirror(stripedId)).isEqualTo(STOCK + 10);
+    }
+
+    private static void assertSellsExactlyTheStock(CheckoutBurst.Result result) {
+        assertThat(result.getUnexpected()).isEmpty();
+        assertThat(result.getSold()).isEqualTo(STOCK);
+        assertThat(result.getRefused()).isEqualTo(CHECKOUTS - STOCK);
+    }
+
+    private int stock(Long productId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT stock_quantity FROM products WHERE product_id = ?", Integer.class, productId);
+    }
+
+    private Integer mirror(Long productId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT striped_stock_mirror FROM products WHERE product_id = ?", Integer.class, productId);
+    }
+
+    private int stripeSum(Long productId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(quantity), 0) FROM product_stock_stripes WHERE product_id = ?",
+                Integer.class, productId);
+    }
+}
@@ -0,0 +1,24 @@
+-- Status lookup tables and their rows, created before Hibernate builds the rest of the schema.
+-- Safe to run against a schema that already has them.
+CREATE TABLE IF NOT EXISTS order_status_types (
+  order_status_id BIGINT PRIMARY KEY AUTO_INCREMENT,
+  order_status_name VARCHAR(20) NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE IF NOT EXISTS payment_status_types (
+  payment_status_id BIGINT PRIMARY KEY AUTO_INCREMENT,
+  payment_status_name VARCHAR(20) NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+INSERT INTO order_status_types (order_status_name)
+SELECT s.name FROM (
+  SELECT 'pending' AS name UNION ALL SELECT 'verified' UNION ALL SELECT 'paid' UNION ALL SELECT 'processing'
+  UNION ALL SELECT 'shipped' UNION ALL SELECT 'delivered' UNION ALL SELECT 'cancelled' UNION ALL SELECT 'refunded'
+) s
+WHERE NOT EXISTS (SELECT 1 FROM order_status_types t WHERE t.order_status_name = s.name);
+
+INSERT INTO payment_status_types (payment_status_name)
+SELECT s.name FROM (
+  SELECT 'pending' AS name UNION ALL SELECT 'failed' UNION ALL SELECT 'verified' UNION ALL SELECT 'refunded'
+) s
+WHERE NOT EXISTS (SELECT 1 FROM payment_status_types t WHERE t.payment_status_name = s.name);